@@ -0,0 +1,22 @@
+package se.mwthinker;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+// Consumes the written files, so only the rendering is measured.
+class BlackholeFileTree implements FileTree {
+    private final Blackhole blackhole;
+
+    BlackholeFileTree(Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public void createDirectory(String path) {
+        blackhole.consume(path);
+    }
+
+    @Override
+    public void write(String path, byte[] content) {
+        blackhole.consume(content);
+    }
+}
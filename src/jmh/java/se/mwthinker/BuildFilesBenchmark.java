@@ -0,0 +1,111 @@
+package se.mwthinker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Generates a whole project in a temporary directory, with Github stubbed out.
+// The single shot benchmark runs once per fork, i.e. it measures the first generation in a new JVM.
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BuildFilesBenchmark {
+
+    // Answers without any network calls.
+    private static class StubGithub extends Github {
+        @Override
+        public String fetchLatestCommitSHA(String owner, String repo) {
+            return "8f2b7a9c0d1e2f3a4b5c6d7e8f9a0b1c2d3e4f5a";
+        }
+
+        @Override
+        public VcpkgObject fetchVcpkgObject(String owner, String repo, String commitSha) {
+            var vcpkgObject = new VcpkgObject();
+            vcpkgObject.setName(repo.toLowerCase());
+            List.of("sdl3", "imgui", "glm", "fmt").forEach(vcpkgObject::addDependency);
+            return vcpkgObject;
+        }
+    }
+
+    @Param({ "false", "true" })
+    private boolean gui;
+
+    private final Github github = new StubGithub();
+    private Path rootDir;
+    private int projectCount;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        rootDir = Files.createTempDirectory("cppgen-benchmark");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (var paths = Files.walk(rootDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Fork(1)
+    public void buildFiles() {
+        generate();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(5)
+    public void firstBuildFiles() {
+        generate();
+    }
+
+    private void generate() {
+        File projectDir = rootDir.resolve("Project" + projectCount++).toFile();
+        var fileSystem = new FileSystem(projectDir, new ResourceHandler(gui ? "gui-template" : "empty-template"));
+        var cmakeBuilder = new CMakeBuilder(fileSystem, new GithubLookups(github))
+                .withDescription("A project used by the benchmarks")
+                .withTestProject(true)
+                .withLicense(LicenseType.MIT, "Benchmark Author");
+        if (gui) {
+            cmakeBuilder
+                    .addLinkLibrary("CppSdl3::CppSdl3")
+                    .addSource("src/main.cpp")
+                    .addSource("src/testwindow.cpp")
+                    .addSource("src/testwindow.h")
+                    .addVcpkgDependency("cppsdl3")
+                    .addRegistry("mwthinker", "mw-vcpkg-registry", "cppsdl3")
+                    .addExternalProjectsWithDependencies("mwthinker", "CppSdl3");
+        } else {
+            cmakeBuilder
+                    .addSource("src/main.cpp")
+                    .addVcpkgDependency("fmt")
+                    .addLinkLibrary("fmt::fmt");
+        }
+        fileSystem.createDirectory("data");
+        cmakeBuilder.buildFiles();
+    }
+}
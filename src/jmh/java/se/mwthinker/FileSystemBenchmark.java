@@ -0,0 +1,76 @@
+package se.mwthinker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Copies of the bundled resources and the json files written by CMakeBuilder.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileSystemBenchmark {
+    private ResourceHandler resourceHandler;
+    private VcpkgObject vcpkgObject;
+    private VcpkgConfigurationObject vcpkgConfiguration;
+
+    @Setup
+    public void setUp() {
+        resourceHandler = new ResourceHandler("gui-template");
+
+        vcpkgObject = new VcpkgObject();
+        vcpkgObject.setName("benchmarkproject");
+        vcpkgObject.setDescription("A project used by the benchmarks");
+        List.of("cppsdl3", "fmt", "spdlog", "nlohmann-json", "gtest").forEach(vcpkgObject::addDependency);
+
+        vcpkgConfiguration = new VcpkgConfigurationObject();
+        var defaultRegistry = new VcpkgConfigurationObject.DefaultRegistry();
+        defaultRegistry.setKind("git");
+        defaultRegistry.setBaseline("8f2b7a9c0d1e2f3a4b5c6d7e8f9a0b1c2d3e4f5a");
+        defaultRegistry.setRepository(Github.getRepositoryUrl("microsoft", "vcpkg"));
+        vcpkgConfiguration.setDefaultRegistry(defaultRegistry);
+        var registry = new VcpkgConfigurationObject.Registry();
+        registry.setKind("git");
+        registry.setBaseline("1a2b3c4d5e6f7a8b9c0d1e2f3a4b5c6d7e8f9a0b");
+        registry.setRepository(Github.getRepositoryUrl("mwthinker", "mw-vcpkg-registry"));
+        registry.setPackages(List.of("cppsdl3"));
+        vcpkgConfiguration.setRegistries(List.of(registry));
+    }
+
+    @Benchmark
+    public void copySource(Blackhole blackhole) {
+        resourceHandler.copyResourceTo("testwindow.cpp", new BlackholeFileTree(blackhole), "src/testwindow.cpp");
+    }
+
+    @Benchmark
+    public void copyRootResource(Blackhole blackhole) {
+        resourceHandler.copyResourceTo("gitattributes", new BlackholeFileTree(blackhole), ".gitattributes");
+    }
+
+    @Benchmark
+    public void saveVcpkgJson(Blackhole blackhole) {
+        createFileSystem(blackhole).saveToFile(vcpkgObject, "vcpkg.json");
+    }
+
+    @Benchmark
+    public void saveVcpkgConfigurationJson(Blackhole blackhole) {
+        createFileSystem(blackhole).saveToFile(vcpkgConfiguration, "vcpkg-configuration.json");
+    }
+
+    private FileSystem createFileSystem(Blackhole blackhole) {
+        return new FileSystem("BenchmarkProject", new BlackholeFileTree(blackhole), resourceHandler);
+    }
+}
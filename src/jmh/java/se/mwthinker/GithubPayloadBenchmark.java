@@ -0,0 +1,77 @@
+package se.mwthinker;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Decodes a Github contents response, the vcpkg.json is base64 encoded in 60 character lines like Github does.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GithubPayloadBenchmark {
+    private static final String VCPKG_JSON = """
+            {
+              "name": "cppsdl3",
+              "version": "1.0.0",
+              "description": "C++ wrapper around SDL3 with OpenGL and ImGui support",
+              "homepage": "https://github.com/mwthinker/CppSdl3",
+              "license": "MIT",
+              "dependencies": [
+                "sdl3",
+                "imgui",
+                "glm",
+                "fmt",
+                "spdlog",
+                "nlohmann-json",
+                "stb",
+                "freetype",
+                "harfbuzz",
+                "glad"
+              ]
+            }
+            """;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        String content = Base64.getMimeEncoder(60, "\n".getBytes(StandardCharsets.US_ASCII))
+                .encodeToString(VCPKG_JSON.getBytes(StandardCharsets.UTF_8));
+        var response = new LinkedHashMap<String, Object>();
+        response.put("name", "vcpkg.json");
+        response.put("path", "vcpkg.json");
+        response.put("sha", "3d2f8a1b4c5e6f708192a3b4c5d6e7f809a1b2c3");
+        response.put("size", VCPKG_JSON.length());
+        response.put("url", "https://api.github.com/repos/mwthinker/CppSdl3/contents/vcpkg.json?ref=main");
+        response.put("html_url", "https://github.com/mwthinker/CppSdl3/blob/main/vcpkg.json");
+        response.put("git_url", "https://api.github.com/repos/mwthinker/CppSdl3/git/blobs/3d2f8a1b4c5e6f708192a3b4c5d6e7f809a1b2c3");
+        response.put("download_url", "https://raw.githubusercontent.com/mwthinker/CppSdl3/main/vcpkg.json");
+        response.put("type", "file");
+        response.put("content", content);
+        response.put("encoding", "base64");
+        payload = mapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public VcpkgObject decodeContents() throws IOException {
+        return mapper.readValue(payload, RepoFileContent.class).getVcpkgObject();
+    }
+}
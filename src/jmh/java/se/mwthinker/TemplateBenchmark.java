@@ -0,0 +1,100 @@
+package se.mwthinker;
+
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Renders each bundled template with the data model CMakeBuilder uses for a gui project with tests.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateBenchmark {
+
+    @Param({ "Bench_CMakeLists.ftl", "CMakeLists.ftl", "CMakePresets.ftl", "ExternalFetchContent.ftl", "LICENSE.ftl", "Test_CMakeLists.ftl", "ci.ftl", "pch.ftl" })
+    private String templateName;
+
+    private Template template;
+    private Map<String, Object> data;
+
+    @Setup
+    public void setUp() {
+        template = TemplateRegistry.getTemplate(templateName);
+        data = createData(templateName);
+    }
+
+    @Benchmark
+    public String render() throws IOException, TemplateException {
+        var writer = new StringWriter();
+        template.process(data, writer);
+        return writer.toString();
+    }
+
+    static Map<String, Object> createData(String templateName) {
+        var externalProjects = List.of(
+                new CMakeBuilder.ExternalProject("CppSdl3", "https://github.com/mwthinker/CppSdl3.git", "8f2b7a9c0d1e2f3a4b5c6d7e8f9a0b1c2d3e4f5a"),
+                new CMakeBuilder.ExternalProject("Signal", "https://github.com/mwthinker/Signal.git", "1a2b3c4d5e6f7a8b9c0d1e2f3a4b5c6d7e8f9a0b"));
+        var sources = new LinkedHashSet<>(List.of(
+                new CMakeBuilder.SourceFile("src/main.cpp", ""),
+                new CMakeBuilder.SourceFile("src/testwindow.cpp", ""),
+                new CMakeBuilder.SourceFile("src/testwindow.h", ""),
+                new CMakeBuilder.SourceFile("src/graphic/renderer.cpp", "graphic"),
+                new CMakeBuilder.SourceFile("src/graphic/renderer.h", "graphic")));
+
+        return switch (templateName) {
+            case "CMakeLists.ftl" -> Map.of(
+                    "projectName", "BenchmarkProject",
+                    "description", "A project used by the benchmarks",
+                    "sources", sources,
+                    "vcpkgDependencies", new LinkedHashSet<>(List.of("cppsdl3", "fmt", "spdlog", "nlohmann-json")),
+                    "linkLibraries", new LinkedHashSet<>(List.of("CppSdl3::CppSdl3", "fmt::fmt", "spdlog::spdlog")),
+                    "testProjectName", "BenchmarkProject_Test",
+                    "linkExternalLibraries", externalProjects,
+                    "extraFiles", new LinkedHashSet<>(List.of("CMakePresets.json", "vcpkg.json", "ExternalFetchContent.cmake")));
+            case "CMakePresets.ftl" -> Map.of(
+                    "windowsVcpkgCache", new CMakeBuilder.VcpkgCache("$env{LOCALAPPDATA}/vcpkg/archives", "$env{LOCALAPPDATA}/vcpkg/downloads", null),
+                    "unixVcpkgCache", new CMakeBuilder.VcpkgCache("$env{HOME}/.cache/vcpkg/archives", "$env{HOME}/.cache/vcpkg/downloads", null),
+                    "unixGenerator", "Ninja",
+                    "unixMultiConfig", false,
+                    "linkTimeOptimization", true,
+                    "profileGuidedOptimization", true,
+                    "hasBenchmarks", true,
+                    "buildPresets", List.of(
+                            new CMakeBuilder.BuildPreset("windows", "Debug", null),
+                            new CMakeBuilder.BuildPreset("unix-bench", "Release", "BenchmarkProject_Bench")),
+                    "testPresets", List.of(new CMakeBuilder.BuildPreset("windows", "Debug", null)));
+            case "ExternalFetchContent.ftl" -> Map.of("externalProjects", externalProjects);
+            case "LICENSE.ftl" -> Map.of("author", "Benchmark Author");
+            case "Bench_CMakeLists.ftl" -> Map.of(
+                    "projectName", "BenchmarkProject_Bench",
+                    "extraFiles", List.of("CMakeLists.txt"));
+            case "Test_CMakeLists.ftl" -> Map.of(
+                    "projectName", "BenchmarkProject_Test",
+                    "extraFiles", List.of("CMakeLists.txt"));
+            case "ci.ftl" -> Map.of(
+                    "projectName", "BenchmarkProject",
+                    "hasTests", true);
+            case "pch.ftl" -> Map.of("headers", List.of("algorithm", "memory", "string", "vector", "sdl/window.h", "imgui.h", "fmt/format.h"));
+            default -> throw new IllegalArgumentException("No data for template " + templateName);
+        };
+    }
+}
@@ -1,44 +1,66 @@
 package se.mwthinker;
 
-import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.Base64Variants;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.exc.StreamReadException;
 import com.fasterxml.jackson.databind.BeanProperty;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
 import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.Base64;
 
+// Decodes a base64 encoded JSON value, e.g. the content of a file from the Github REST API.
 public class Base64Deserializer extends JsonDeserializer<Object> implements ContextualDeserializer {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
 
-    private Class<?> resultClass;
+    private final ObjectReader reader;
+
+    public Base64Deserializer() {
+        this(null);
+    }
+
+    private Base64Deserializer(ObjectReader reader) {
+        this.reader = reader;
+    }
 
     @Override
     public JsonDeserializer<?> createContextual(DeserializationContext context, BeanProperty property) {
-        this.resultClass = property.getType().getRawClass();
-        return this;
+        return new Base64Deserializer(MAPPER.readerFor(property.getType()));
     }
 
     @Override
     public Object deserialize(JsonParser parser, DeserializationContext context) throws IOException {
-        String value = parser.getValueAsString();
-
         try {
-            byte[] decodedValue = Base64.getMimeDecoder().decode(value);
-            return new ObjectMapper().readValue(decodedValue, this.resultClass);
-        } catch (IllegalArgumentException | JsonParseException e) {
+            // The parser decodes the base64 (skipping the line breaks Github adds) directly from its input buffer.
+            var decoded = new DecodedBytes();
+            parser.readBinaryValue(Base64Variants.MIME, decoded);
+            return reader.readValue(decoded.getBuffer(), 0, decoded.size());
+        } catch (StreamReadException | IllegalArgumentException e) {
             String fieldName = parser.getParsingContext().getCurrentName();
             var wrapperClass = parser.getParsingContext().getCurrentValue().getClass();
 
             throw new InvalidFormatException(
                     parser,
                     String.format("Value for '%s' is not a base64 encoded JSON", fieldName),
-                    value,
+                    null,
                     wrapperClass
             );
         }
     }
+
+    // Gives access to the buffer, so the decoded bytes are parsed without being copied.
+    private static final class DecodedBytes extends ByteArrayOutputStream {
+        DecodedBytes() {
+            super(1024);
+        }
+
+        byte[] getBuffer() {
+            return buf;
+        }
+    }
 }
@@ -0,0 +1,104 @@
+package se.mwthinker;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Generates all projects in a manifest concurrently, a failing project does not affect the others.
+public class BatchGenerator {
+
+    // Must be public for Jackson
+    public record Manifest(@JsonProperty("projects") List<ProjectOptions> projects) {}
+
+    public record Result(String projectName, String error) {
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    private final ProjectGenerator projectGenerator;
+
+    public BatchGenerator(ProjectGenerator projectGenerator) {
+        this.projectGenerator = projectGenerator;
+    }
+
+    public static List<ProjectOptions> readManifest(File manifestFile) {
+        Manifest manifest;
+        try {
+            manifest = new ObjectMapper().readValue(manifestFile, Manifest.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read manifest " + manifestFile + ": " + e.getMessage(), e);
+        }
+        if (manifest.projects() == null || manifest.projects().isEmpty()) {
+            throw new RuntimeException("Manifest " + manifestFile + " has no projects");
+        }
+
+        var names = new HashSet<String>();
+        for (var project : manifest.projects()) {
+            if (project == null || project.getName() == null || project.getName().isBlank()) {
+                throw new RuntimeException("Every project in the manifest must have a name");
+            }
+            if (!isDirectoryName(project.getName())) {
+                throw new RuntimeException("Project name " + project.getName() + " must be a directory name, not a path");
+            }
+            if (!names.add(project.getName())) {
+                throw new RuntimeException("Project " + project.getName() + " is defined more than once in the manifest");
+            }
+        }
+        return manifest.projects();
+    }
+
+    // The project is generated next to the manifest. As on the command line, where the name is the last part of the path.
+    private static boolean isDirectoryName(String name) {
+        return !name.equals(".") && !name.equals("..") && !name.contains("/") && !name.contains("\\")
+                && new File(name).getName().equals(name);
+    }
+
+    // Projects are generated in parentDir, the results are in the same order as the projects.
+    public List<Result> generate(File parentDir, List<ProjectOptions> projects) {
+        List<Future<?>> futures = new ArrayList<>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var project : projects) {
+                futures.add(executor.submit(() -> projectGenerator.generate(new File(parentDir, project.getName()), project)));
+            }
+        }
+
+        List<Result> results = new ArrayList<>();
+        for (int i = 0; i < projects.size(); ++i) {
+            results.add(getResult(projects.get(i).getName(), futures.get(i)));
+        }
+        return results;
+    }
+
+    public static void printSummary(List<Result> results) {
+        long failed = results.stream().filter(result -> !result.isSuccess()).count();
+        System.out.println("Generated " + (results.size() - failed) + " of " + results.size() + " projects.");
+        for (var result : results) {
+            if (result.isSuccess()) {
+                System.out.println("  OK     " + result.projectName());
+            } else {
+                System.out.println("  FAILED " + result.projectName() + ": " + result.error());
+            }
+        }
+    }
+
+    private static Result getResult(String projectName, Future<?> future) {
+        try {
+            future.get();
+            return new Result(projectName, null);
+        } catch (ExecutionException e) {
+            return new Result(projectName, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(projectName, "Interrupted");
+        }
+    }
+}
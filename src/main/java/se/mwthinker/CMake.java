@@ -2,57 +2,86 @@ package se.mwthinker;
 
 import org.apache.commons.exec.CommandLine;
 import org.apache.commons.exec.DefaultExecutor;
+import org.apache.commons.exec.ExecuteException;
 import org.apache.commons.lang3.SystemUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Map;
 
-abstract class CMake {
-    private static boolean VERBOSE = false;
+// Runs cmake with the environment of the command, which is the one of the client when run by the daemon.
+class CMake {
+    private final boolean verbose;
+    private final Map<String, String> environment;
 
-    public static void setVerbose(boolean verbose) {
-        CMake.VERBOSE = verbose;
+    CMake(boolean verbose, Map<String, String> environment) {
+        this.verbose = verbose;
+        this.environment = environment;
     }
 
-    public static void generate(File projectDir, File buildDir) {
-        var cmdLine = CommandLine.parse("cmake --preset " + getPreset() + " -B \"" + buildDir.getAbsolutePath() +"\"");
+    // The release preset is only generated with link time optimization.
+    public void generate(File projectDir, boolean release) {
+        var cmdLine = createConfigureCommand(release);
 
         var executor = new DefaultExecutor.Builder<>()
                 .setWorkingDirectory(projectDir)
                 .get();
 
-        try {
-            executor.execute(cmdLine);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        execute(executor, cmdLine);
     }
 
-    public static void openVisualStudio(File projectDir, File buildDir) {
+    // No build directory is given, the binaryDir of the preset is used, so the build and test presets find it.
+    CommandLine createConfigureCommand(boolean release) {
+        return new CommandLine(Executables.find("cmake", environment))
+                .addArgument("--preset")
+                .addArgument(getPreset(release));
+    }
+
+    public void openVisualStudio(File projectDir, boolean release) {
         if (!SystemUtils.IS_OS_WINDOWS) {
             return;
         }
 
         var executor = new DefaultExecutor.Builder<>()
-                .setWorkingDirectory(buildDir)
+                .setWorkingDirectory(getBuildDir(projectDir, release))
                 .get();
 
         String openVisualStudioSolution = "cmd /C start devenv \"" + projectDir.getName() + ".sln\"";
-        if (VERBOSE) {
+        if (verbose) {
             System.out.println(openVisualStudioSolution);
         }
-        try {
-            var cmdLine = CommandLine.parse(openVisualStudioSolution);
-            executor.execute(cmdLine);
+        execute(executor, CommandLine.parse(openVisualStudioSolution));
+    }
+
+    private void execute(DefaultExecutor executor, CommandLine cmdLine) {
+        String command = String.join(" ", cmdLine.toStrings());
+        var event = new CMakeProcessEvent();
+        event.begin();
+        int exitCode = -1;
+        try (var _ = Timings.span("cmake", command)) {
+            exitCode = executor.execute(cmdLine, environment);
+        } catch (ExecuteException e) {
+            exitCode = e.getExitValue();
+            throw new RuntimeException(e);
         } catch (IOException e) {
             throw new RuntimeException(e);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.command = command;
+                event.exitCode = exitCode;
+                event.commit();
+            }
         }
     }
 
-    private static String getPreset() {
-        if (SystemUtils.IS_OS_WINDOWS) {
-            return "windows";
-        }
-        return "unix";
+    static String getPreset(boolean release) {
+        String preset = SystemUtils.IS_OS_WINDOWS ? "windows" : "unix";
+        return release ? preset + "-release" : preset;
+    }
+
+    // The binaryDir of the configure preset in CMakePresets.json.
+    static File getBuildDir(File projectDir, boolean release) {
+        return new File(new File(projectDir, "build"), getPreset(release));
     }
 }
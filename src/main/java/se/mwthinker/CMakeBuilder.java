@@ -1,11 +1,16 @@
 package se.mwthinker;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 enum LicenseType {
     MIT
@@ -17,10 +22,35 @@ public class CMakeBuilder {
     public record ExternalProject(String name, String gitUrl, String gitTag) {}
     // Must be public for Freemarker template access
     public record SourceFile(String file, String namespace) {}
+    // Must be public for Freemarker template access. Null paths are not set in the presets.
+    public record VcpkgCache(String binaryCache, String downloads, String installedDir) {}
+    // Must be public for Freemarker template access. A build (and test) preset of the configure preset with the same name,
+    // building only the target if not null.
+    public record BuildPreset(String name, String configuration, String target) {}
+
+    private record RegistryLookup(VcpkgConfigurationObject.Registry registry, GithubRepository repository) {}
+
+    private static final String PRECOMPILED_HEADER = "src/pch.h";
+
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Added to every precompiled header.
+    private static final List<String> STANDARD_HEADERS = List.of("algorithm", "array", "memory", "string", "string_view", "vector");
+    // The heavy headers of known link libraries, keyed by the CMake target. Only the headers of the library itself,
+    // the headers of its dependencies may not be reachable from the target linking it.
+    private static final Map<String, List<String>> LINK_LIBRARY_HEADERS = Map.of(
+            "benchmark::benchmark", List.of("benchmark/benchmark.h"),
+            "CppSdl3::CppSdl3", List.of("sdl/window.h"),
+            "fmt::fmt", List.of("fmt/format.h"),
+            "glm::glm", List.of("glm/glm.hpp"),
+            "GTest::gtest", List.of("gtest/gtest.h"),
+            "nlohmann_json::nlohmann_json", List.of("nlohmann/json.hpp"),
+            "spdlog::spdlog", List.of("spdlog/spdlog.h"));
 
     private boolean testProject;
+    private boolean benchmarkProject;
     private final FileSystem fileSystem;
-    private final Github github;
+    private final GithubLookups githubLookups;
     private final List<ExternalProject> externalProjects = new ArrayList<>();
     private final List<VcpkgObject> vcpkgObjects = new ArrayList<>();
     private final Set<String> vcpkgDependencies = new LinkedHashSet<>(); // Want to element keep order (to make it easier for a human to read).
@@ -31,10 +61,28 @@ public class CMakeBuilder {
     private String description = "Description";
     private String author = "";
     private final List<VcpkgConfigurationObject.Registry> registries = new ArrayList<>();
+    private final List<RegistryLookup> registryLookups = new ArrayList<>();
+    private final List<GithubRepository> externalRepositories = new ArrayList<>();
+    private CompletableFuture<String> vcpkgBaseline;
+    private Map<GithubRepository, String> pinnedCommits = Map.of();
+    private String vcpkgBinaryCache;
+    private String vcpkgDownloads;
+    private String sharedVcpkgInstalled;
+    private boolean precompiledHeader;
+    private int unityBuildBatchSize;
+    private boolean compilerLauncher;
+    private boolean ciMatrixBuildTypes;
+    private CMakeGenerator generator = CMakeGenerator.MAKE;
+    private boolean linkTimeOptimization;
+    private boolean profileGuidedOptimization;
 
     public CMakeBuilder(FileSystem fileSystem, Github github) {
+        this(fileSystem, new GithubLookups(github));
+    }
+
+    public CMakeBuilder(FileSystem fileSystem, GithubLookups githubLookups) {
         this.fileSystem = fileSystem;
-        this.github = github;
+        this.githubLookups = githubLookups;
     }
 
     public CMakeBuilder addExternalProjects(String name, String gitUrl, String gitTag) {
@@ -42,26 +90,31 @@ public class CMakeBuilder {
         return this;
     }
 
+    // The baseline is fetched from Github when building the files.
     public CMakeBuilder addRegistry(String owner, String repo, String... packages) {
-        String commitSha = github.fetchLatestCommitSHA(owner, repo);
         var registry = new VcpkgConfigurationObject.Registry();
         registry.setKind("git");
-        registry.setBaseline(commitSha);
         registry.setRepository(Github.getRepositoryUrl(owner, repo));
         if (packages != null && packages.length > 0) {
             registry.setPackages(List.of(packages));
         }
         registries.add(registry);
+        registryLookups.add(new RegistryLookup(registry, new GithubRepository(owner, repo)));
         return this;
     }
 
+    // The latest commit and the vcpkg.json are fetched from Github when building the files.
+    // The external projects listed in its vcpkg.json (and theirs) are added as well.
     public CMakeBuilder addExternalProjectsWithDependencies(String owner, String repo) {
-        var repositoryUrl = Github.getRepositoryUrl(owner, repo);
-        String commitSha = github.fetchLatestCommitSHA(owner, repo);
-        var vcpkgObject = github.fetchVcpkgObject(owner, repo, commitSha);
-        vcpkgObjects.add(vcpkgObject);
-        fetchedVcpkgDependencies.addAll(vcpkgObject.getDependencies());
-        return addExternalProjects(repo, repositoryUrl, commitSha);
+        externalRepositories.add(new GithubRepository(owner, repo));
+        return this;
+    }
+
+    // The vcpkg baseline, registry baselines and external projects found here are not looked up on Github,
+    // e.g. to keep the commits of an existing project.
+    public CMakeBuilder withPinnedCommits(Map<GithubRepository, String> pinnedCommits) {
+        this.pinnedCommits = pinnedCommits;
+        return this;
     }
 
     public CMakeBuilder addVcpkgDependency(String dependency) {
@@ -99,41 +152,205 @@ public class CMakeBuilder {
         return this;
     }
 
+    // Adds a Google Benchmark project, built unless the cmake option <Project>_Bench is turned off.
+    public CMakeBuilder withBenchmarkProject(boolean benchmarkProject) {
+        this.benchmarkProject = benchmarkProject;
+        return this;
+    }
+
     public CMakeBuilder withLicense(LicenseType type, String author) {
         this.author = author;
         return this;
     }
 
+    // Generates src/pch.h (and one for the test project), with the standard headers and the headers of known dependencies.
+    public CMakeBuilder withPrecompiledHeader(boolean precompiledHeader) {
+        this.precompiledHeader = precompiledHeader;
+        return this;
+    }
+
+    // Batch size of the unity build, zero turns it off.
+    public CMakeBuilder withUnityBuild(int batchSize) {
+        if (batchSize < 0) {
+            throw new RuntimeException("Unity build batch size must not be negative: " + batchSize);
+        }
+        this.unityBuildBatchSize = batchSize;
+        return this;
+    }
+
+    // Uses sccache or ccache, if found when configuring, unless CMAKE_CXX_COMPILER_LAUNCHER is already set.
+    public CMakeBuilder withCompilerLauncher(boolean compilerLauncher) {
+        this.compilerLauncher = compilerLauncher;
+        return this;
+    }
+
+    // Debug and Release are built by separate jobs in the Github workflow, instead of one after the other.
+    public CMakeBuilder withCiMatrixBuildTypes(boolean ciMatrixBuildTypes) {
+        this.ciMatrixBuildTypes = ciMatrixBuildTypes;
+        return this;
+    }
+
+    public CMakeBuilder withGenerator(CMakeGenerator generator) {
+        this.generator = generator;
+        return this;
+    }
+
+    // Adds the release presets windows-release and unix-release, with interprocedural optimization turned on.
+    public CMakeBuilder withLinkTimeOptimization(boolean linkTimeOptimization) {
+        this.linkTimeOptimization = linkTimeOptimization;
+        return this;
+    }
+
+    // Adds the presets unix-pgo-generate and unix-pgo-use (GCC and Clang), sharing the build directory
+    // so the profile written by the instrumented build matches the objects of the optimized build.
+    public CMakeBuilder withProfileGuidedOptimization(boolean profileGuidedOptimization) {
+        this.profileGuidedOptimization = profileGuidedOptimization;
+        return this;
+    }
+
+    // The vcpkg paths are set in CMakePresets.json, they may use preset macros like $env{HOME}.
+    // An empty path is a directory in the vcpkg user cache of the host system, null is not set.
+
+    // Built packages are reused from the cache, instead of being built again by every project.
+    public CMakeBuilder withVcpkgBinaryCache(String dir) {
+        this.vcpkgBinaryCache = dir;
+        return this;
+    }
+
+    public CMakeBuilder withVcpkgDownloads(String dir) {
+        this.vcpkgDownloads = dir;
+        return this;
+    }
+
+    // Projects with the same vcpkg baseline share the installed packages, in a sub directory named after the baseline.
+    public CMakeBuilder withSharedVcpkgInstalled(String dir) {
+        this.sharedVcpkgInstalled = dir;
+        return this;
+    }
+
+    // Files are written concurrently. Files depending on Github lookups are written when the lookups are done,
+    // the other files are written while waiting for them.
     public void buildFiles() {
         if (sources.isEmpty()) {
             throw new RuntimeException("Must at least have one source file");
         }
 
-        for (var source : sources) {
-            fileSystem.copyResourceTo(source.file());
+        // Added before any file is written, to keep the order in CMakeLists.txt.
+        if (precompiledHeader) {
+            addExtraFile(PRECOMPILED_HEADER);
         }
-
         addExtraFile("CMakePresets.json");
-        fileSystem.copyResourceTo("CMakePresets.json");
         addExtraFile("vcpkg.json");
-        saveVcpkgJson();
-        saveVcpkgConfigurationJson();
-
-        fileSystem.copyResourceTo("gitattributes",".gitattributes");
-        fileSystem.copyResourceTo("gitignore", ".gitignore");
-
-        if (!externalProjects.isEmpty()) {
-            fileSystem.saveFileFromTemplate(Map.of("externalProjects", externalProjects), "ExternalFetchContent.cmake");
+        if (!externalProjects.isEmpty() || !externalRepositories.isEmpty()) {
             addExtraFile("ExternalFetchContent.cmake");
         }
 
-        saveCMakeListsTxt();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        var githubLookupsResolved = CompletableFuture.runAsync(this::resolveGithubLookups, EXECUTOR);
+        tasks.add(githubLookupsResolved);
+
+        for (var source : sources) {
+            tasks.add(runAsync(() -> fileSystem.copyResourceTo(source.file())));
+        }
+        tasks.add(runAsync(() -> fileSystem.copyResourceTo("gitattributes",".gitattributes")));
+        tasks.add(runAsync(() -> fileSystem.copyResourceTo("gitignore", ".gitignore")));
+        if (testProject) {
+            tasks.add(runAsync(this::buildTestProject));
+        }
+        if (benchmarkProject) {
+            tasks.add(runAsync(this::buildBenchmarkProject));
+        }
         if (!author.isEmpty()) {
-            saveLicenseFile();
+            tasks.add(runAsync(this::saveLicenseFile));
+        }
+        tasks.add(runAsync(this::saveGithubAction));
+        tasks.add(runAsync(() -> fileSystem.copyResourceTo("./.github/copilot-instructions.md")));
+
+        tasks.add(githubLookupsResolved.thenRunAsync(this::saveVcpkgJson, EXECUTOR));
+        tasks.add(githubLookupsResolved.thenRunAsync(this::saveVcpkgConfigurationJson, EXECUTOR));
+        tasks.add(githubLookupsResolved.thenRunAsync(this::saveExternalFetchContent, EXECUTOR));
+        tasks.add(githubLookupsResolved.thenRunAsync(this::saveCMakeListsTxt, EXECUTOR));
+        tasks.add(githubLookupsResolved.thenRunAsync(this::saveCMakePresets, EXECUTOR));
+        if (precompiledHeader) {
+            tasks.add(runAsync(this::savePrecompiledHeader));
         }
 
-        saveGithubAction();
-        fileSystem.copyResourceTo("./.github/copilot-instructions.md");
+        try (var _ = Timings.span("phase", "build files")) {
+            awaitAll(tasks);
+        }
+    }
+
+    private static CompletableFuture<Void> runAsync(Runnable task) {
+        return CompletableFuture.runAsync(task, EXECUTOR);
+    }
+
+    // Waits for every task, also after a failure, so nothing is written after buildFiles returns.
+    // The first failure is thrown, with the other failures suppressed.
+    private static void awaitAll(List<CompletableFuture<Void>> tasks) {
+        RuntimeException error = null;
+        Set<Throwable> failures = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (var task : tasks) {
+            try {
+                GithubLookups.join(task);
+            } catch (RuntimeException e) {
+                // Tasks depending on a failed task fail with the same exception.
+                if (!failures.add(e)) {
+                    continue;
+                }
+                if (error == null) {
+                    error = e;
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private void resolveGithubLookups() {
+        try (var _ = Timings.span("phase", "github lookups")) {
+            // Start every lookup before waiting for any of them, so they run in parallel.
+            var vcpkg = new GithubRepository("microsoft", "vcpkg");
+            var latestCommits = new ArrayList<GithubRepository>();
+            latestCommits.add(vcpkg);
+            registryLookups.forEach(lookup -> latestCommits.add(lookup.repository()));
+            latestCommits.removeIf(pinnedCommits::containsKey);
+            githubLookups.prefetch(latestCommits, externalRepositories.stream().filter(repository -> !pinnedCommits.containsKey(repository)).toList());
+
+            vcpkgBaseline = getCommitSha(vcpkg);
+            var registryBaselines = registryLookups.stream()
+                    .map(lookup -> getCommitSha(lookup.repository()))
+                    .toList();
+            var crawledProjects = new ExternalProjectCrawler(githubLookups, pinnedCommits).crawl(externalRepositories);
+
+            for (int i = 0; i < registryLookups.size(); ++i) {
+                registryLookups.get(i).registry().setBaseline(GithubLookups.join(registryBaselines.get(i)));
+            }
+            for (var project : GithubLookups.join(crawledProjects)) {
+                var repository = project.repository();
+                vcpkgObjects.add(project.vcpkgObject());
+                fetchedVcpkgDependencies.addAll(project.vcpkgObject().getDependencies());
+                addExternalProjects(repository.repo(), Github.getRepositoryUrl(repository.owner(), repository.repo()), project.commitSha());
+            }
+            registryLookups.clear();
+            externalRepositories.clear();
+        }
+    }
+
+    private CompletableFuture<String> getCommitSha(GithubRepository repository) {
+        String pinnedCommitSha = pinnedCommits.get(repository);
+        if (pinnedCommitSha != null) {
+            return CompletableFuture.completedFuture(pinnedCommitSha);
+        }
+        return githubLookups.latestCommitSha(repository.owner(), repository.repo());
+    }
+
+    private void saveExternalFetchContent() {
+        if (!externalProjects.isEmpty()) {
+            fileSystem.saveFileFromTemplate(Map.of("externalProjects", externalProjects), "ExternalFetchContent.cmake");
+        }
     }
 
     private void saveLicenseFile() {
@@ -144,17 +361,102 @@ public class CMakeBuilder {
         Map<String, Object> data = new HashMap<>();
         data.put("projectName", fileSystem.getProjectName());
         data.put("hasTests", testProject);
+        data.put("hasBenchmarks", benchmarkProject);
+        data.put("matrixBuildTypes", ciMatrixBuildTypes);
+        data.put("precompiledHeader", precompiledHeader);
 
         fileSystem.saveFileFromTemplate(data, ".github/workflows/ci.yml");
     }
 
+    // Only the libraries in target_link_libraries of the project, not the dependencies of the fetched projects.
+    private void savePrecompiledHeader() {
+        fileSystem.saveFileFromTemplate(Map.of("headers", getPrecompiledHeaders(linkLibraries)), "pch.ftl", PRECOMPILED_HEADER);
+    }
+
+    private static List<String> getPrecompiledHeaders(Set<String> linkLibraries) {
+        var headers = new LinkedHashSet<>(STANDARD_HEADERS);
+        linkLibraries.forEach(library -> headers.addAll(LINK_LIBRARY_HEADERS.getOrDefault(library, List.of())));
+        return List.copyOf(headers);
+    }
+
+    // The build speed options, the same for the project and the test project.
+    private void putBuildOptions(Map<String, Object> data) {
+        data.put("precompiledHeader", precompiledHeader);
+        data.put("unityBuildBatchSize", unityBuildBatchSize);
+    }
+
+    private void saveCMakePresets() {
+        Map<String, Object> data = new HashMap<>();
+        if (hasVcpkgCache()) {
+            data.put("windowsVcpkgCache", createVcpkgCache("$env{LOCALAPPDATA}/vcpkg"));
+            data.put("unixVcpkgCache", createVcpkgCache("$env{HOME}/.cache/vcpkg"));
+        }
+        data.put("unixGenerator", generator.getCMakeName());
+        data.put("unixMultiConfig", generator.isMultiConfig());
+        data.put("linkTimeOptimization", linkTimeOptimization);
+        data.put("profileGuidedOptimization", profileGuidedOptimization);
+        var buildPresets = createBuildPresets();
+        data.put("buildPresets", buildPresets);
+        if (testProject) {
+            // The benchmark presets only build the benchmarks.
+            data.put("testPresets", buildPresets.stream().filter(preset -> preset.target() == null).toList());
+        }
+        data.put("hasBenchmarks", benchmarkProject);
+        fileSystem.saveFileFromTemplate(data, "CMakePresets.json");
+    }
+
+    private List<BuildPreset> createBuildPresets() {
+        var presets = new ArrayList<BuildPreset>();
+        presets.add(new BuildPreset("windows", "Debug", null));
+        if (linkTimeOptimization) {
+            presets.add(new BuildPreset("windows-release", "Release", null));
+        }
+        if (benchmarkProject) {
+            presets.add(new BuildPreset("windows-bench", "Release", getBenchmarkProjectName()));
+        }
+        presets.add(new BuildPreset("unix", "Debug", null));
+        if (linkTimeOptimization) {
+            presets.add(new BuildPreset("unix-release", "Release", null));
+        }
+        if (benchmarkProject) {
+            presets.add(new BuildPreset("unix-bench", "Release", getBenchmarkProjectName()));
+        }
+        if (profileGuidedOptimization) {
+            presets.add(new BuildPreset("unix-pgo-generate", "Release", null));
+            presets.add(new BuildPreset("unix-pgo-use", "Release", null));
+        }
+        return presets;
+    }
+
+    private boolean hasVcpkgCache() {
+        return vcpkgBinaryCache != null || vcpkgDownloads != null || sharedVcpkgInstalled != null;
+    }
+
+    // The default directories are in the vcpkg user cache, where vcpkg itself keeps the binary cache by default.
+    private VcpkgCache createVcpkgCache(String userCacheDir) {
+        String installedDir = null;
+        if (sharedVcpkgInstalled != null) {
+            installedDir = getDirectory(sharedVcpkgInstalled, userCacheDir + "/installed") + "/" + GithubLookups.join(vcpkgBaseline);
+        }
+        return new VcpkgCache(
+                getDirectory(vcpkgBinaryCache, userCacheDir + "/archives"),
+                getDirectory(vcpkgDownloads, userCacheDir + "/downloads"),
+                installedDir);
+    }
+
+    private static String getDirectory(String dir, String defaultDir) {
+        if (dir == null) {
+            return null;
+        }
+        return dir.isEmpty() ? defaultDir : dir;
+    }
+
     private void saveVcpkgConfigurationJson() {
         var newVcpkgConfiguration = new VcpkgConfigurationObject();
         var defaultRegistry = new VcpkgConfigurationObject.DefaultRegistry();
         newVcpkgConfiguration.setDefaultRegistry(defaultRegistry);
         defaultRegistry.setKind("git");
-        var commitSHA = github.fetchLatestCommitSHA("microsoft", "vcpkg");
-        defaultRegistry.setBaseline(commitSHA);
+        defaultRegistry.setBaseline(GithubLookups.join(vcpkgBaseline));
         defaultRegistry.setRepository(Github.getRepositoryUrl("microsoft", "vcpkg"));
 
         if (!registries.isEmpty()) {
@@ -175,11 +477,10 @@ public class CMakeBuilder {
         if (testProject) {
             newVcpkgObject.addDependency("gtest");
         }
-        fileSystem.saveToFile(newVcpkgObject, "vcpkg.json");
-
-        if (testProject) {
-            buildTestProject();
+        if (benchmarkProject) {
+            newVcpkgObject.addDependency("benchmark");
         }
+        fileSystem.saveToFile(newVcpkgObject, "vcpkg.json");
     }
 
     private String getTestProjectName() {
@@ -191,11 +492,35 @@ public class CMakeBuilder {
 
         Map<String, Object> data = new HashMap<>();
         data.put("projectName", getTestProjectName());
-        data.put("extraFiles", List.of("CMakeLists.txt"));
+        data.put("extraFiles", precompiledHeader ? List.of("CMakeLists.txt", PRECOMPILED_HEADER) : List.of("CMakeLists.txt"));
+        putBuildOptions(data);
 
+        if (precompiledHeader) {
+            fileSystem.saveFileFromTemplate(Map.of("headers", getPrecompiledHeaders(Set.of("GTest::gtest"))), "pch.ftl",
+                    String.join("/", getTestProjectName(), PRECOMPILED_HEADER));
+        }
         fileSystem.saveFileFromTemplate(data, "Test_CMakeLists.ftl", String.join("/", getTestProjectName(), "CMakeLists.txt"));
     }
 
+    private String getBenchmarkProjectName() {
+        return fileSystem.getProjectName() + "_Bench";
+    }
+
+    private void buildBenchmarkProject() {
+        fileSystem.copyResourceTo(String.join("/", getBenchmarkProjectName(), "src", "benchmarks.cpp"));
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("projectName", getBenchmarkProjectName());
+        data.put("extraFiles", precompiledHeader ? List.of("CMakeLists.txt", PRECOMPILED_HEADER) : List.of("CMakeLists.txt"));
+        putBuildOptions(data);
+
+        if (precompiledHeader) {
+            fileSystem.saveFileFromTemplate(Map.of("headers", getPrecompiledHeaders(Set.of("benchmark::benchmark"))), "pch.ftl",
+                    String.join("/", getBenchmarkProjectName(), PRECOMPILED_HEADER));
+        }
+        fileSystem.saveFileFromTemplate(data, "Bench_CMakeLists.ftl", String.join("/", getBenchmarkProjectName(), "CMakeLists.txt"));
+    }
+
     private void saveCMakeListsTxt() {
         Map<String, Object> data = new HashMap<>();
         data.put("projectName", fileSystem.getProjectName());
@@ -206,10 +531,16 @@ public class CMakeBuilder {
         if (testProject) {
             data.put("testProjectName", getTestProjectName());
         }
+        if (benchmarkProject) {
+            data.put("benchProjectName", getBenchmarkProjectName());
+        }
         if (!externalProjects.isEmpty()) {
             data.put("linkExternalLibraries", externalProjects);
         }
         data.put("extraFiles", extraFiles);
+        data.put("createVcpkgDirectories", vcpkgBinaryCache != null || vcpkgDownloads != null);
+        data.put("compilerLauncher", compilerLauncher);
+        putBuildOptions(data);
 
         fileSystem.saveFileFromTemplate(data, "CMakeLists.txt");
     }
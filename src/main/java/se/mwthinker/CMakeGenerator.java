@@ -0,0 +1,46 @@
+package se.mwthinker;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+// The generator of the unix preset, the windows preset always uses Visual Studio.
+public enum CMakeGenerator {
+    MAKE("make", "Unix Makefiles", false),
+    NINJA("ninja", "Ninja", false),
+    NINJA_MULTI_CONFIG("ninja-multi-config", "Ninja Multi-Config", true);
+
+    private final String optionName;
+    private final String cmakeName;
+    private final boolean multiConfig;
+
+    CMakeGenerator(String optionName, String cmakeName, boolean multiConfig) {
+        this.optionName = optionName;
+        this.cmakeName = cmakeName;
+        this.multiConfig = multiConfig;
+    }
+
+    // The name given on the command line and in the batch manifest.
+    @JsonValue
+    public String getOptionName() {
+        return optionName;
+    }
+
+    public String getCMakeName() {
+        return cmakeName;
+    }
+
+    // A multi config generator builds Debug and Release in the same build directory.
+    public boolean isMultiConfig() {
+        return multiConfig;
+    }
+
+    @JsonCreator
+    public static CMakeGenerator fromOptionName(String optionName) {
+        for (var generator : values()) {
+            if (generator.optionName.equals(optionName)) {
+                return generator;
+            }
+        }
+        throw new RuntimeException("Unknown generator " + optionName + ", must be one of make, ninja or ninja-multi-config");
+    }
+}
@@ -0,0 +1,21 @@
+package se.mwthinker;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Flight recorder event for a cmake (or Visual Studio) subprocess.
+@Name("se.mwthinker.CMakeProcess")
+@Label("CMake Process")
+@Category({ "cppgen", "Process" })
+@Description("A subprocess started by cppgen, the duration is the time until it exited")
+@StackTrace(false)
+class CMakeProcessEvent extends jdk.jfr.Event {
+    @Label("Command")
+    String command;
+
+    @Label("Exit Code")
+    int exitCode;
+}
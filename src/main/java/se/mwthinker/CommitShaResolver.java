@@ -0,0 +1,55 @@
+package se.mwthinker;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+
+// Resolves the latest commit of a repository without using the Github REST API.
+public interface CommitShaResolver {
+
+    // Returns empty if the commit could not be resolved, the Github REST API is then used instead.
+    Optional<String> resolveLatestCommitSha(String owner, String repo);
+
+    // Creates a resolver from a configuration value:
+    //   vcpkg-root        the local git checkout in the VCPKG_ROOT environment variable
+    //   local:PATH        a local git repository or mirror
+    //   ls-remote[:URL]   "git ls-remote", by default against the Github repository url
+    //   sha:SHA           a fixed commit
+    //   rest              the Github REST API
+    static CommitShaResolver of(String value) {
+        return of(value, System.getenv(), null);
+    }
+
+    // The environment and the working directory are the ones of the command, i.e. of the client when run by the daemon.
+    // A relative local path is resolved against the working directory, if null against the one of this process.
+    static CommitShaResolver of(String value, Map<String, String> environment, File workingDir) {
+        int colon = value.indexOf(':');
+        String kind = colon < 0 ? value : value.substring(0, colon);
+        String argument = colon < 0 ? "" : value.substring(colon + 1);
+
+        return switch (kind) {
+            case "vcpkg-root" -> {
+                String vcpkgRoot = environment.get("VCPKG_ROOT");
+                if (vcpkgRoot == null || vcpkgRoot.isBlank()) {
+                    throw new RuntimeException("Resolver vcpkg-root requires the environment variable VCPKG_ROOT");
+                }
+                yield new LocalGitCommitShaResolver(Path.of(vcpkgRoot));
+            }
+            case "local" -> new LocalGitCommitShaResolver(resolve(workingDir, argument));
+            case "ls-remote" -> new GitLsRemoteCommitShaResolver(argument.isEmpty() ? null : argument, environment, workingDir);
+            case "sha" -> {
+                if (argument.isBlank()) {
+                    throw new RuntimeException("Resolver sha requires a commit: sha:SHA");
+                }
+                yield (_, _) -> Optional.of(argument);
+            }
+            case "rest" -> (_, _) -> Optional.empty();
+            default -> throw new RuntimeException("Unknown commit resolver: " + value);
+        };
+    }
+
+    private static Path resolve(File workingDir, String path) {
+        return workingDir != null ? workingDir.toPath().resolve(path) : Path.of(path);
+    }
+}
@@ -0,0 +1,75 @@
+package se.mwthinker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+
+// Forwards the command line to a running daemon and streams back its output.
+// Only uses java.base, so the client starts without loading picocli, jline or the generator.
+final class DaemonClient {
+    static final String USE_DAEMON = "--use-daemon";
+
+    private DaemonClient() {
+    }
+
+    static boolean isRequested(String[] args) {
+        return Arrays.asList(args).contains(USE_DAEMON) || "1".equals(System.getenv("CPPGEN_USE_DAEMON"));
+    }
+
+    // Returns the exit code, or empty if no daemon is running and the command should run in this process.
+    static Optional<Integer> run(Path socket, String[] args) {
+        // Interactive prompts need the terminal of this process.
+        String[] forwardedArgs = Arrays.stream(args)
+                .filter(arg -> !USE_DAEMON.equals(arg))
+                .toArray(String[]::new);
+        if (forwardedArgs.length == 0) {
+            return Optional.empty();
+        }
+
+        SocketChannel channel;
+        try {
+            channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+            channel.connect(UnixDomainSocketAddress.of(socket));
+        } catch (IOException | UnsupportedOperationException e) {
+            return Optional.empty();
+        }
+
+        try (channel) {
+            var out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            var in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            DaemonProtocol.writeRequest(out, new DaemonProtocol.Request(Path.of("").toAbsolutePath(), forwardedArgs, System.getenv()));
+            return Optional.of(readResponse(in));
+        } catch (EOFException e) {
+            System.err.println("Daemon closed the connection before the command completed.");
+            return Optional.of(1);
+        } catch (IOException e) {
+            System.err.println("Daemon error: " + e.getMessage());
+            return Optional.of(1);
+        }
+    }
+
+    private static int readResponse(DataInputStream in) throws IOException {
+        while (true) {
+            byte type = in.readByte();
+            if (type == DaemonProtocol.EXIT) {
+                return in.readInt();
+            }
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            OutputStream out = type == DaemonProtocol.STDERR ? System.err : System.out;
+            out.write(bytes);
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package se.mwthinker;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// The messages between the daemon client and the daemon.
+// The client sends the working directory, the arguments and its environment, the daemon answers with output frames and ends with the exit code.
+final class DaemonProtocol {
+    static final byte STDOUT = 1;
+    static final byte STDERR = 2;
+    static final byte EXIT = 3;
+
+    // The environment replaces the one of the daemon, e.g. the Github token, PATH and VCPKG_ROOT of the client.
+    record Request(Path workingDir, String[] args, Map<String, String> environment) {}
+
+    private DaemonProtocol() {
+    }
+
+    static Path getDefaultSocket() {
+        String socket = System.getenv("CPPGEN_DAEMON_SOCKET");
+        if (socket != null && !socket.isBlank()) {
+            return Path.of(socket);
+        }
+        return GithubCache.getDefaultDirectory().resolve("daemon.sock");
+    }
+
+    static void writeRequest(DataOutputStream out, Request request) throws IOException {
+        out.writeUTF(request.workingDir().toString());
+        out.writeInt(request.args().length);
+        for (String arg : request.args()) {
+            out.writeUTF(arg);
+        }
+        out.writeInt(request.environment().size());
+        for (var variable : request.environment().entrySet()) {
+            out.writeUTF(variable.getKey());
+            out.writeUTF(variable.getValue());
+        }
+        out.flush();
+    }
+
+    static Request readRequest(DataInputStream in) throws IOException {
+        Path workingDir = Path.of(in.readUTF());
+        String[] args = new String[in.readInt()];
+        for (int i = 0; i < args.length; ++i) {
+            args[i] = in.readUTF();
+        }
+        int variables = in.readInt();
+        Map<String, String> environment = new LinkedHashMap<>();
+        for (int i = 0; i < variables; ++i) {
+            environment.put(in.readUTF(), in.readUTF());
+        }
+        return new Request(workingDir, args, environment);
+    }
+
+    // Sends everything written as frames of the given type. Shared by stdout and stderr, so the writes are synchronized on the stream.
+    static OutputStream frameOutputStream(DataOutputStream out, byte type) {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] { (byte) b }, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                synchronized (out) {
+                    out.writeByte(type);
+                    out.writeInt(length);
+                    out.write(bytes, offset, length);
+                    out.flush();
+                }
+            }
+        };
+    }
+
+    static void writeExitCode(DataOutputStream out, int exitCode) throws IOException {
+        synchronized (out) {
+            out.writeByte(EXIT);
+            out.writeInt(exitCode);
+            out.flush();
+        }
+    }
+}
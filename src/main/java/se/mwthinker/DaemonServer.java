@@ -0,0 +1,153 @@
+package se.mwthinker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// A warm cppgen process listening on a Unix domain socket. Each request runs on its own virtual thread,
+// the parsed templates and the http client are shared between the requests.
+// Stops when no request has been served within the idle timeout.
+final class DaemonServer {
+    // System.out and System.err are routed to the client of the current request, including the threads
+    // started by the request. Nothing started by one request may be reused by another.
+    private static final InheritableThreadLocal<OutputStream> REQUEST_OUT = new InheritableThreadLocal<>();
+    private static final InheritableThreadLocal<OutputStream> REQUEST_ERR = new InheritableThreadLocal<>();
+
+    private final Path socket;
+    private final Duration idleTimeout;
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private volatile long lastActivity = System.nanoTime();
+
+    DaemonServer(Path socket, Duration idleTimeout) {
+        this.socket = socket;
+        this.idleTimeout = idleTimeout;
+    }
+
+    int run() {
+        if (isRunning()) {
+            System.err.println("A daemon is already listening on: " + socket);
+            return 1;
+        }
+
+        try (var server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            Files.createDirectories(socket.getParent());
+            // Left by a daemon that did not stop cleanly.
+            Files.deleteIfExists(socket);
+            server.bind(UnixDomainSocketAddress.of(socket));
+            System.out.println("Daemon listening on: " + socket);
+
+            System.setOut(routingPrintStream(System.out, REQUEST_OUT));
+            System.setErr(routingPrintStream(System.err, REQUEST_ERR));
+            Thread.ofVirtual().start(() -> stopWhenIdle(server));
+            while (true) {
+                SocketChannel channel;
+                try {
+                    channel = server.accept();
+                } catch (ClosedChannelException e) {
+                    break;
+                }
+                activeRequests.incrementAndGet();
+                Thread.ofVirtual().start(() -> handle(channel));
+            }
+        } catch (IOException e) {
+            System.err.println("Daemon error: " + e.getMessage());
+            return 1;
+        } finally {
+            try {
+                Files.deleteIfExists(socket);
+            } catch (IOException e) {
+                // Removed by the next daemon.
+            }
+        }
+        System.out.println("Daemon stopped after being idle for " + idleTimeout.toSeconds() + " seconds.");
+        return 0;
+    }
+
+    private void handle(SocketChannel channel) {
+        try (channel) {
+            var in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            var out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            var request = DaemonProtocol.readRequest(in);
+            REQUEST_OUT.set(DaemonProtocol.frameOutputStream(out, DaemonProtocol.STDOUT));
+            REQUEST_ERR.set(DaemonProtocol.frameOutputStream(out, DaemonProtocol.STDERR));
+
+            int exitCode;
+            try (var generatorCli = new GeneratorCli(this, request.workingDir().toFile(), request.environment())) {
+                exitCode = generatorCli.run(request.args());
+            } catch (RuntimeException e) {
+                System.err.println("Error: " + e.getMessage());
+                exitCode = 1;
+            }
+            DaemonProtocol.writeExitCode(out, exitCode);
+        } catch (IOException e) {
+            // The client is gone, e.g. interrupted by the user.
+        } finally {
+            REQUEST_OUT.remove();
+            REQUEST_ERR.remove();
+            lastActivity = System.nanoTime();
+            activeRequests.decrementAndGet();
+        }
+    }
+
+    private void stopWhenIdle(ServerSocketChannel server) {
+        long checkInterval = Math.max(1, Math.min(idleTimeout.toMillis(), 1000));
+        try {
+            while (server.isOpen()) {
+                Thread.sleep(checkInterval);
+                if (activeRequests.get() == 0 && System.nanoTime() - lastActivity > idleTimeout.toNanos()) {
+                    server.close();
+                }
+            }
+        } catch (InterruptedException | IOException e) {
+            // Stops checking, the daemon is closing.
+        }
+    }
+
+    private boolean isRunning() {
+        try (var channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(socket));
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static PrintStream routingPrintStream(PrintStream fallback, ThreadLocal<OutputStream> requestOut) {
+        return new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                current().write(b);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                current().write(bytes, offset, length);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                current().flush();
+            }
+
+            private OutputStream current() {
+                var out = requestOut.get();
+                return out != null ? out : fallback;
+            }
+        }, true, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,35 @@
+package se.mwthinker;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Writes to a directory on disk and records everything created in the journal.
+public class DiskFileTree implements FileTree {
+    private final File rootDir;
+    private final GenerationJournal journal;
+
+    public DiskFileTree(File rootDir, GenerationJournal journal) {
+        this.rootDir = rootDir;
+        this.journal = journal;
+    }
+
+    @Override
+    public void createDirectory(String path) {
+        journal.createDirectories(new File(rootDir, path).toPath());
+    }
+
+    @Override
+    public void write(String path, byte[] content) {
+        Path file = new File(rootDir, path).toPath();
+        try (var _ = Timings.span("disk", path).arg("bytes", content.length)) {
+            journal.createDirectories(file.getParent());
+            // Recorded before written, so a partially written file is also removed on rollback.
+            journal.recordFile(file);
+            Files.write(file, content);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package se.mwthinker;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Prints the files of a project generated in memory and, for an existing project directory, the diff against it.
+final class DryRunReport {
+
+    private DryRunReport() {
+    }
+
+    static void print(File projectDir, InMemoryFileTree fileTree, PrintStream out) {
+        out.println("Dry run, nothing is written. " + projectDir.getName() + " would contain:");
+        long totalSize = 0;
+        for (var file : fileTree.getFiles().entrySet()) {
+            out.printf("%10d  %s%n", file.getValue().length, file.getKey());
+            totalSize += file.getValue().length;
+        }
+        out.println(fileTree.getFiles().size() + " files, " + totalSize + " bytes.");
+
+        if (!projectDir.isDirectory()) {
+            return;
+        }
+        for (var file : fileTree.getFiles().entrySet()) {
+            Path existingFile = projectDir.toPath().resolve(file.getKey());
+            String existing = readFile(existingFile);
+            String generated = new String(file.getValue(), StandardCharsets.UTF_8);
+            String fromFile = existing == null ? "/dev/null" : "a/" + file.getKey();
+            out.print(UnifiedDiff.diff(fromFile, "b/" + file.getKey(), existing == null ? "" : existing, generated));
+        }
+    }
+
+    private static String readFile(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            return Files.readString(file);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
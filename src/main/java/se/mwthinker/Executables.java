@@ -0,0 +1,34 @@
+package se.mwthinker;
+
+import org.apache.commons.lang3.SystemUtils;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+// Finds the programs started by cppgen, e.g. cmake and git, in PATH of the environment of the command.
+// The process would otherwise be started from PATH of this process, which is the one of the daemon.
+final class Executables {
+
+    private Executables() {
+    }
+
+    // Returns the name if not found, the process is then started from PATH of this process.
+    static String find(String name, Map<String, String> environment) {
+        String path = environment.entrySet().stream()
+                .filter(variable -> variable.getKey().equalsIgnoreCase("PATH"))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse("");
+        List<String> fileNames = SystemUtils.IS_OS_WINDOWS ? List.of(name + ".exe", name) : List.of(name);
+        for (String dir : path.split(File.pathSeparator)) {
+            for (String fileName : fileNames) {
+                File file = new File(dir, fileName);
+                if (!dir.isEmpty() && file.isFile() && file.canExecute()) {
+                    return file.getAbsolutePath();
+                }
+            }
+        }
+        return name;
+    }
+}
@@ -0,0 +1,112 @@
+package se.mwthinker;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Finds the external projects of the external projects. An external project lists its own external projects in
+// its vcpkg.json, e.g. "$external-projects": ["mwthinker/Signal"] (vcpkg ignores fields starting with $).
+// A project's vcpkg.json is fetched as soon as the project that depends on it is fetched, so the number of round
+// trips depends on the depth of the graph and not the number of projects. Each project is only fetched once,
+// which also ends cycles.
+public class ExternalProjectCrawler {
+    public record Project(GithubRepository repository, String commitSha, VcpkgObject vcpkgObject) {}
+
+    private final GithubLookups githubLookups;
+    private final Map<GithubRepository, String> pinnedCommits;
+    private final Map<GithubRepository, CompletableFuture<Void>> visits = new ConcurrentHashMap<>();
+    private final Map<GithubRepository, Project> projects = new ConcurrentHashMap<>();
+
+    public ExternalProjectCrawler(GithubLookups githubLookups) {
+        this(githubLookups, Map.of());
+    }
+
+    // A pinned project is fetched at its pinned commit instead of the latest commit.
+    public ExternalProjectCrawler(GithubLookups githubLookups, Map<GithubRepository, String> pinnedCommits) {
+        this.githubLookups = githubLookups;
+        this.pinnedCommits = pinnedCommits;
+    }
+
+    // The projects in breadth first order from the given projects, which are first.
+    public CompletableFuture<List<Project>> crawl(List<GithubRepository> repositories) {
+        githubLookups.prefetch(List.of(), unpinned(repositories));
+        var visited = repositories.stream()
+                .map(this::visit)
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(visited).thenApply(_ -> breadthFirstOrder(repositories));
+    }
+
+    // Only the first visit of a project waits for it to be fetched, so the visits never wait on each other in a cycle.
+    private CompletableFuture<Void> visit(GithubRepository repository) {
+        var visit = new CompletableFuture<Void>();
+        if (visits.putIfAbsent(repository, visit) != null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        fetch(repository)
+                .thenCompose(project -> {
+                    projects.put(repository, project);
+                    var externalProjects = getExternalProjects(project.vcpkgObject());
+                    githubLookups.prefetch(List.of(), unpinned(externalProjects));
+                    var children = externalProjects.stream()
+                            .map(this::visit)
+                            .toArray(CompletableFuture[]::new);
+                    return CompletableFuture.allOf(children);
+                })
+                .whenComplete((_, e) -> {
+                    if (e != null) {
+                        visit.completeExceptionally(e);
+                    } else {
+                        visit.complete(null);
+                    }
+                });
+        return visit;
+    }
+
+    private CompletableFuture<Project> fetch(GithubRepository repository) {
+        String pinnedCommitSha = pinnedCommits.get(repository);
+        if (pinnedCommitSha != null) {
+            return githubLookups.vcpkgObject(repository.owner(), repository.repo(), pinnedCommitSha)
+                    .thenApply(vcpkgObject -> new Project(repository, pinnedCommitSha, vcpkgObject));
+        }
+        return githubLookups.vcpkgObject(repository.owner(), repository.repo())
+                .thenApply(vcpkgObject -> {
+                    String commitSha = GithubLookups.join(githubLookups.latestCommitSha(repository.owner(), repository.repo()));
+                    return new Project(repository, commitSha, vcpkgObject);
+                });
+    }
+
+    private List<GithubRepository> unpinned(List<GithubRepository> repositories) {
+        return repositories.stream()
+                .filter(repository -> !pinnedCommits.containsKey(repository))
+                .toList();
+    }
+
+    // The order only depends on the vcpkg.json files, not on which request finished first.
+    private List<Project> breadthFirstOrder(List<GithubRepository> repositories) {
+        Set<GithubRepository> seen = new LinkedHashSet<>(repositories);
+        var queue = new ArrayDeque<>(seen);
+        List<Project> ordered = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            var project = projects.get(queue.poll());
+            ordered.add(project);
+            for (var child : getExternalProjects(project.vcpkgObject())) {
+                if (seen.add(child)) {
+                    queue.add(child);
+                }
+            }
+        }
+        return ordered;
+    }
+
+    private static List<GithubRepository> getExternalProjects(VcpkgObject vcpkgObject) {
+        return vcpkgObject.getExternalProjects().stream()
+                .map(GithubRepository::parse)
+                .toList();
+    }
+}
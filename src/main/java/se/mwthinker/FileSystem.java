@@ -7,20 +7,25 @@ import com.fasterxml.jackson.databind.ObjectWriter;
 import freemarker.template.TemplateException;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.Comparator;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 public class FileSystem {
-    private final File projectDir;
+    private final String projectName;
+    private final FileTree fileTree;
     private final ResourceHandler resourceHandler;
     private boolean verbose;
 
     public FileSystem(File projectDir, ResourceHandler resourceHandler) {
-        this.projectDir = projectDir;
+        this(projectDir.getName(), new DiskFileTree(projectDir, new GenerationJournal()), resourceHandler);
+    }
+
+    // The files are written to the file tree, e.g. a staging directory or memory.
+    public FileSystem(String projectName, FileTree fileTree, ResourceHandler resourceHandler) {
+        this.projectName = projectName;
+        this.fileTree = fileTree;
         this.resourceHandler = resourceHandler;
     }
 
@@ -29,14 +34,18 @@ public class FileSystem {
     }
 
     public String getProjectName() {
-        return projectDir.getName();
+        return projectName;
+    }
+
+    public void createDirectory(String dir) {
+        fileTree.createDirectory(dir);
     }
 
     public void copyResourceTo(String resource, String destName) {
         if (verbose) {
             System.out.println("Use resource " + resource + " to save in file " + destName);
         }
-        resourceHandler.copyResourceTo(resource, new File(projectDir, destName));
+        resourceHandler.copyResourceTo(resource, fileTree, destName);
     }
 
     public void copyResourceTo(String resource) {
@@ -44,15 +53,17 @@ public class FileSystem {
     }
 
     public void saveToFile(Object jsonObject, String saveToFile) {
-        try {
+        byte[] content;
+        try (var _ = Timings.span("json", saveToFile)) {
             ObjectMapper mapper = new ObjectMapper();
             ObjectWriter writer = mapper.writer(
                     new DefaultPrettyPrinter().withObjectIndenter(new DefaultIndenter().withLinefeed("\n"))
             );
-            writer.writeValue(new File(projectDir, saveToFile), jsonObject);
+            content = writer.writeValueAsBytes(jsonObject);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+        fileTree.write(saveToFile, content);
     }
 
     public void saveFileFromTemplate(Map<String, Object> data, String templateFileName, String saveToFile) {
@@ -61,26 +72,25 @@ public class FileSystem {
             data.forEach((key, value) -> System.out.println(key + ": " + value));
         }
 
-        File file = new File(projectDir, saveToFile);
-        file.getParentFile().mkdirs();
-        try (FileWriter writer = new FileWriter(file)) {
+        var event = new TemplateRenderEvent();
+        event.begin();
+        var writer = new StringWriter();
+        try (var _ = Timings.span("template", saveToFile).arg("template", templateFileName)) {
             resourceHandler
                     .getTemplate(templateFileName)
                     .process(data, writer);
         } catch (IOException | TemplateException e) {
             throw new RuntimeException(e);
         }
-    }
-
-    public void deleteProjectDir() {
-        Path pathToBeDeleted = projectDir.toPath();
-        try (var paths = Files.walk(pathToBeDeleted)) {
-            paths.sorted(Comparator.reverseOrder())
-                    .map(Path::toFile)
-                    .forEach(File::delete);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        byte[] content = writer.toString().getBytes(StandardCharsets.UTF_8);
+        event.end();
+        if (event.shouldCommit()) {
+            event.template = templateFileName;
+            event.file = saveToFile;
+            event.size = content.length;
+            event.commit();
         }
+        fileTree.write(saveToFile, content);
     }
 
     public void saveFileFromTemplate(Map<String, Object> data, String saveToFile) {
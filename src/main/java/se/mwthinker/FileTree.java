@@ -0,0 +1,10 @@
+package se.mwthinker;
+
+// Where the generated files are written, paths are relative to the project directory and use '/'.
+public interface FileTree {
+
+    void createDirectory(String path);
+
+    // Creates the parent directories if missing.
+    void write(String path, byte[] content);
+}
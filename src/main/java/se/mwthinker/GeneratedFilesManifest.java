@@ -0,0 +1,53 @@
+package se.mwthinker;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+// The content hashes of the generated files, saved in the project. Used by --update to find the files changed by the user.
+public class GeneratedFilesManifest {
+    public static final String PATH = ".cppgen/manifest.json";
+
+    @JsonProperty("files")
+    private Map<String, String> files = new TreeMap<>();
+
+    public static GeneratedFilesManifest read(File projectDir) {
+        File file = new File(projectDir, PATH);
+        if (!file.isFile()) {
+            return new GeneratedFilesManifest();
+        }
+        try {
+            return new ObjectMapper().readValue(file, GeneratedFilesManifest.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    public static String hash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public synchronized void put(String path, String hash) {
+        files.put(path, hash);
+    }
+
+    // Returns null if the file was not generated.
+    public synchronized String getHash(String path) {
+        return files.get(path);
+    }
+
+    public synchronized Map<String, String> getFiles() {
+        return new TreeMap<>(files);
+    }
+}
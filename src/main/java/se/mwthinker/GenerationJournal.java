@@ -0,0 +1,56 @@
+package se.mwthinker;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Records every file and directory created by a generation, so a rollback only removes what was created.
+public class GenerationJournal {
+    private final Queue<Path> files = new ConcurrentLinkedQueue<>();
+    private final Queue<Path> directories = new ConcurrentLinkedQueue<>();
+
+    // Must be called before the file is written, so a partially written file is also removed.
+    public void recordFile(Path file) {
+        files.add(file);
+    }
+
+    public void recordDirectory(Path dir) {
+        directories.add(dir);
+    }
+
+    // Creates the missing directories and records them.
+    public synchronized void createDirectories(Path dir) {
+        if (dir == null || Files.isDirectory(dir)) {
+            return;
+        }
+        createDirectories(dir.getParent());
+        try {
+            Files.createDirectory(dir);
+            directories.add(dir);
+        } catch (FileAlreadyExistsException e) {
+            // Created by someone else, must not be removed by a rollback.
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Removes the recorded files in parallel and then the recorded directories, deepest first.
+    public void rollback() {
+        files.parallelStream().forEach(GenerationJournal::delete);
+        directories.stream()
+                .sorted(Comparator.comparingInt(Path::getNameCount).reversed())
+                .forEach(GenerationJournal::delete);
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Continue removing the rest, e.g. a directory where the user added files.
+        }
+    }
+}
@@ -15,6 +15,10 @@ import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
 
 import java.io.*;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
@@ -44,73 +48,287 @@ public class GeneratorCli implements Closeable, Flushable {
     @Option(names = { "-t", "--test" }, paramLabel = "TEST", description = "Add test.")
     private boolean test = false;
 
+    @Option(names = { "--bench" }, paramLabel = "BENCH", description = "Add benchmarks using Google Benchmark.")
+    private boolean bench = false;
+
     @Option(names = { "-l", "--license" }, paramLabel = "LICENSE", description = "Add MIT license with author.")
     private String licenseAuthor = "";
 
+    @Option(names = { "--pch" }, paramLabel = "PCH", description = "Add a precompiled header with the standard library and dependency headers.")
+    private boolean precompiledHeader = false;
+
+    @Option(names = { "--unity-build" }, paramLabel = "UNITYBUILD", description = "Compile the sources as unity builds of " + DEFAULT_UNITY_BUILD_BATCH_SIZE + " files.")
+    private boolean unityBuild = false;
+
+    @Option(names = { "--unity-build-batch-size" }, paramLabel = "BATCH_SIZE", converter = BatchSizeConverter.class,
+            description = "Same as --unity-build, but with BATCH_SIZE files.")
+    private Integer unityBuildBatchSize;
+
+    @Option(names = { "--compiler-launcher" }, paramLabel = "COMPILERLAUNCHER", description = "Use sccache or ccache when found by cmake.")
+    private boolean compilerLauncher = false;
+
+    @Option(names = { "--ci-matrix" }, paramLabel = "CIMATRIX", description = "Build Debug and Release in separate jobs in the Github workflow.")
+    private boolean ciMatrixBuildTypes = false;
+
+    @Option(names = { "--generator" }, paramLabel = "GENERATOR", defaultValue = "make", converter = CMakeGeneratorConverter.class,
+            description = "Generator of the unix preset: make, ninja or ninja-multi-config (default: ${DEFAULT-VALUE}).")
+    private CMakeGenerator generator = CMakeGenerator.MAKE;
+
+    @Option(names = { "--lto" }, paramLabel = "LTO", description = "Add release presets with link time optimization, used by --cmake.")
+    private boolean linkTimeOptimization = false;
+
+    @Option(names = { "--pgo" }, paramLabel = "PGO", description = "Add presets for profile guided optimization with GCC or Clang.")
+    private boolean profileGuidedOptimization = false;
+
+    // The directory options are separate, an optional value would take the project name given after the flag.
+    @Option(names = { "--vcpkg-binary-cache" }, paramLabel = "VCPKGBINARYCACHE",
+            description = "Add presets caching the packages built by vcpkg in the vcpkg user cache, reused by other projects.")
+    private boolean vcpkgBinaryCache = false;
+
+    @Option(names = { "--vcpkg-binary-cache-dir" }, paramLabel = "DIR", description = "Same as --vcpkg-binary-cache, but caching the packages in DIR.")
+    private String vcpkgBinaryCacheDir;
+
+    @Option(names = { "--vcpkg-downloads" }, paramLabel = "VCPKGDOWNLOADS", description = "Add presets sharing the vcpkg downloads in the vcpkg user cache.")
+    private boolean vcpkgDownloads = false;
+
+    @Option(names = { "--vcpkg-downloads-dir" }, paramLabel = "DIR", description = "Same as --vcpkg-downloads, but sharing the downloads in DIR.")
+    private String vcpkgDownloadsDir;
+
+    @Option(names = { "--vcpkg-shared-installed" }, paramLabel = "VCPKGSHAREDINSTALLED",
+            description = "Add presets sharing the installed vcpkg packages between projects with the same baseline, in the vcpkg user cache.")
+    private boolean vcpkgSharedInstalled = false;
+
+    @Option(names = { "--vcpkg-shared-installed-dir" }, paramLabel = "DIR",
+            description = "Same as --vcpkg-shared-installed, but sharing the packages in DIR/BASELINE.")
+    private String vcpkgSharedInstalledDir;
+
     @Option(names = { "-k", "--keepFiles" }, paramLabel = "KEEPFILES", description = "Keep generated files on error.")
     private boolean keepFiles = false;
 
+    @Option(names = { "-b", "--batch" }, paramLabel = "MANIFEST", description = "Generate all projects in a json manifest, next to the manifest.")
+    private File batchManifest;
+
+    @Option(names = { "--cache-ttl" }, paramLabel = "SECONDS", defaultValue = "600", description = "Seconds a cached Github response is used without asking Github (default: ${DEFAULT-VALUE}).")
+    private long cacheTtlSeconds;
+
+    @Option(names = { "--no-cache" }, paramLabel = "NOCACHE", description = "Do not use the Github response cache.")
+    private boolean noCache = false;
+
+    @Option(names = { "-r", "--resolver" }, paramLabel = "OWNER/REPO=RESOLVER", split = ",",
+            description = "How to resolve the latest commit of a repository: vcpkg-root, local:PATH, ls-remote[:URL], sha:SHA or rest (default).")
+    private Map<String, String> commitShaResolvers = new LinkedHashMap<>();
+
+    @Option(names = { "-n", "--dry-run" }, paramLabel = "DRYRUN", description = "Show the generated files, and the diff against an existing project, without writing anything.")
+    private boolean dryRun = false;
+
+    @Option(names = { "-u", "--update" }, paramLabel = "UPDATE", description = "Update an existing project, only files whose content changed are written.")
+    private boolean update = false;
+
+    @Option(names = { "--force" }, paramLabel = "FORCE", description = "With --update, also overwrite files modified since they were generated.")
+    private boolean force = false;
+
+    @Option(names = { "--upgrade-dependencies" }, paramLabel = "UPGRADEDEPENDENCIES",
+            description = "With --update, also move the vcpkg baseline and the external projects to their latest commits.")
+    private boolean upgradeDependencies = false;
+
+    @Option(names = { "--timings" }, paramLabel = "TIMINGS",
+            description = "Write a Chrome trace of where the time is spent to " + DEFAULT_TIMINGS_FILE + " and show a summary.")
+    private boolean timingsRequested = false;
+
+    @Option(names = { "--timings-file" }, paramLabel = "FILE", description = "Same as --timings, but writing the trace to FILE.")
+    private File timingsFile;
+
+    @Option(names = { "--startup-profile" }, paramLabel = "STARTUPPROFILE", description = "Show where the time is spent during startup, can't be used with --use-daemon.")
+    private boolean startupProfile = false;
+
     @Option(names = { "-v", "--version" }, versionHelp = true, description = "Display version info.")
     private boolean versionRequested = false;
 
     @Option(names = { "-h", "--help" }, usageHelp = true, description = "Display this help message.")
     private boolean help = false;
 
+    @Option(names = { "--daemon" }, paramLabel = "DAEMON", description = "Run as a daemon serving the commands started with --use-daemon.")
+    private boolean startDaemon = false;
+
+    @Option(names = { "--daemon-idle-timeout" }, paramLabel = "SECONDS", defaultValue = "1800", description = "Seconds without requests before the daemon stops (default: ${DEFAULT-VALUE}).")
+    private long daemonIdleTimeoutSeconds;
+
+    @Option(names = { DaemonClient.USE_DAEMON }, paramLabel = "USEDAEMON", description = "Run the command in the daemon, if one is running.")
+    private boolean useDaemon = false;
+
+    private static final int DEFAULT_UNITY_BUILD_BATCH_SIZE = 8;
+    private static final String DEFAULT_TIMINGS_FILE = "cppgen-timings.json";
+
+    // The options given by environment variables.
+    private static final Map<String, String> ENVIRONMENT_DEFAULTS = Map.of(
+            "--cache-ttl", "CPPGEN_CACHE_TTL",
+            "--resolver", "CPPGEN_RESOLVERS",
+            "--daemon-idle-timeout", "CPPGEN_DAEMON_IDLE_TIMEOUT");
+
+    private final DaemonServer daemon;
+    private final File workingDir;
+    private final Map<String, String> environment;
     private Terminal terminal;
+    private Timings timings;
 
     static void main(String[] args) {
+        if (DaemonClient.isRequested(args)) {
+            var exitCode = DaemonClient.run(DaemonProtocol.getDefaultSocket(), args);
+            if (exitCode.isPresent()) {
+                System.exit(exitCode.get());
+            }
+        }
+
+        StartupProfile.start(args);
+        int exitCode;
         try (GeneratorCli generatorCli = new GeneratorCli()) {
-            generatorCli.run(args);
+            exitCode = generatorCli.run(args);
         } catch (UserInterruptException | EndOfFileException _) {
-            System.exit(1);
+            exitCode = 1;
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+        System.exit(exitCode);
     }
 
-    public GeneratorCli() throws IOException {
-        terminal = null;
-        try {
-            terminal = TerminalBuilder.builder()
-                    .system(true)
-                    .dumb(true)
-                    .build();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+    // The terminal is only created when prompting.
+    public GeneratorCli() {
+        this(null, null, System.getenv());
     }
 
-    public void run(String[] args) {
-        ConsolePrompt prompt = new ConsolePrompt(terminal);
-        PromptBuilder builder = prompt.getPromptBuilder();
+    // Used by the daemon, relative paths are resolved against the working directory of the client
+    // and the environment is the one of the client.
+    GeneratorCli(DaemonServer daemon, File workingDir, Map<String, String> environment) {
+        this.daemon = daemon;
+        this.workingDir = workingDir;
+        this.environment = environment;
+    }
 
-        var commandLine = new CommandLine(this);
+    public int run(String[] args) {
+        long parseStart = System.nanoTime();
+        CommandLine commandLine;
         try {
-            commandLine.parseArgs(args);
+            commandLine = StartupProfile.measure("picocli parsing", () -> {
+                var parser = new CommandLine(this);
+                parser.setDefaultValueProvider(this::getDefaultValueFromEnvironment);
+                parser.parseArgs(args);
+                return parser;
+            });
         } catch (CommandLine.ParameterException e) {
             System.err.println("Argument error: " + e.getMessage());
-            System.exit(2);
+            return exit(2);
         }
 
         if (help) {
             commandLine.usage(System.out);
-            System.exit(0);
+            return exit(0);
         } else if (versionRequested) {
             printVersion();
-            System.exit(0);
+            return exit(0);
+        } else if (startupProfile && (daemon != null || useDaemon)) {
+            // The startup of the daemon happened before the request, and the client is not profiled.
+            System.out.println("Argument error: --startup-profile can't be used with --use-daemon");
+            return exit(2);
         }
 
-        if (projectDir == null) {
-            interactivePrompt(prompt, builder);
+        int exitCode;
+        if (startDaemon) {
+            exitCode = executeDaemon();
+        } else if (batchManifest != null) {
+            startTimings(parseStart);
+            TemplateRegistry.warmUpInBackground();
+            exitCode = executeBatch();
+        } else {
+            startTimings(parseStart);
+            TemplateRegistry.warmUpInBackground();
+            if (projectDir == null) {
+                if (daemon != null) {
+                    System.out.println("Argument error: PROJECT_NAME is required when using the daemon");
+                    return exit(2);
+                }
+                interactivePrompt();
+            }
+            exitCode = executeGeneratorLogic();
         }
-        int exitCode = executeGeneratorLogic();
         if (exitCode == 2) {
             commandLine.usage(System.out);
         }
-        System.exit(exitCode);
+        return exit(exitCode);
+    }
+
+    // Only the generation is traced, not --help, --version or the daemon.
+    private void startTimings(long parseStart) {
+        if (timingsRequested || timingsFile != null) {
+            timings = Timings.start(parseStart);
+            timings.add("cli", "argument parsing", parseStart, System.nanoTime() - parseStart, null);
+        }
+    }
+
+    // Used instead of ${env:...} in the annotations, which would read the environment of the daemon.
+    private String getDefaultValueFromEnvironment(CommandLine.Model.ArgSpec argSpec) {
+        if (argSpec instanceof CommandLine.Model.OptionSpec option && ENVIRONMENT_DEFAULTS.containsKey(option.longestName())) {
+            String value = environment.get(ENVIRONMENT_DEFAULTS.get(option.longestName()));
+            return value == null || value.isBlank() ? null : value;
+        }
+        return null;
+    }
+
+    private int exit(int exitCode) {
+        if (verbose) {
+            // Counted since start, i.e. over all requests with the same token when run by the daemon.
+            var statistics = getScheduler().getStatistics();
+            if (statistics.requests() > 0) {
+                System.out.printf("Github requests: %d, retries: %d, rate limit wait: %d ms%n",
+                        statistics.requests(), statistics.retries(), statistics.throttledWait().toMillis());
+            }
+        }
+        if (timings != null) {
+            Timings.stop();
+            // Nothing was generated after an argument error.
+            if (exitCode != 2) {
+                writeTimings();
+            }
+        }
+        if (startupProfile) {
+            StartupProfile.print(System.err);
+        }
+        return exitCode;
+    }
+
+    private void writeTimings() {
+        File file = timingsFile != null ? timingsFile : new File(DEFAULT_TIMINGS_FILE);
+        if (workingDir != null && !file.isAbsolute()) {
+            file = new File(workingDir, file.getPath());
+        }
+        timings.printSummary(System.out);
+        try {
+            timings.writeTrace(file);
+            System.out.println("Timings written to: " + file.getPath());
+        } catch (RuntimeException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    private Terminal getTerminal() {
+        if (terminal == null) {
+            terminal = StartupProfile.measure("jline init", () -> {
+                try {
+                    return TerminalBuilder.builder()
+                            .system(true)
+                            .dumb(true)
+                            .build();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+        return terminal;
     }
 
-    private void interactivePrompt(ConsolePrompt prompt, PromptBuilder builder) {
+    private void interactivePrompt() {
+        ConsolePrompt prompt = new ConsolePrompt(getTerminal());
+        PromptBuilder builder = prompt.getPromptBuilder();
+
         builder.createInputPrompt()
                 .name("projectName")
                 .message("Enter project name: ")
@@ -173,56 +391,44 @@ public class GeneratorCli implements Closeable, Flushable {
     }
 
     private int executeGeneratorLogic() {
-        if (projectDir.exists() || !projectDir.mkdir()) {
-            System.out.println("Failed to create project folder: " + projectDir.getAbsolutePath());
-            return 1;
-        }
-        if (!new File(projectDir, "data").mkdir()) {
-            System.out.println("Failed to create data folder");
-            return 1;
+        GithubLookups githubLookups;
+        try {
+            githubLookups = createGithubLookups();
+        } catch (RuntimeException e) {
+            System.out.println("Argument error: " + e.getMessage());
+            return 2;
         }
 
-        System.out.println("Generating project in: " + projectDir.getName());
-        FileSystem fileSystem = new FileSystem(projectDir, createResourceHandler());
-        fileSystem.setVerbose(verbose);
-
-        CMakeBuilder cmakeBuilder = new CMakeBuilder(fileSystem, new Github())
-                .withDescription(description)
-                .withTestProject(test)
-                .withLicense(LicenseType.MIT, licenseAuthor);
-
-        if (gui) {
-            cmakeBuilder
-                    .addLinkLibrary("CppSdl3::CppSdl3")
-                    .addSource("src/main.cpp")
-                    .addSource("src/testwindow.cpp")
-                    .addSource("src/testwindow.h")
-                    .addVcpkgDependency("cppsdl3")
-                    .addRegistry("mwthinker", "mw-vcpkg-registry", "cppsdl3");
-        } else {
-            cmakeBuilder
-                    .addSource("src/main.cpp")
-                    .addVcpkgDependency("fmt")
-                    .addLinkLibrary("fmt::fmt");
+        resolveWorkingDir();
+        var projectGenerator = createProjectGenerator(githubLookups);
+        if (dryRun) {
+            try {
+                var fileTree = projectGenerator.render(projectDir.getName(), createProjectOptions());
+                DryRunReport.print(projectDir, fileTree, System.out);
+                return 0;
+            } catch (RuntimeException e) {
+                System.out.println("Error during project generation: " + e.getMessage());
+                return 1;
+            }
         }
+
         try {
-            cmakeBuilder.buildFiles();
-        } catch (RuntimeException e) {
-            if (!keepFiles) {
-                System.out.println("Cleaning up generated files due to error.");
-                fileSystem.deleteProjectDir();
+            if (update) {
+                var fileTree = projectGenerator.update(projectDir, createProjectOptions(), force, upgradeDependencies);
+                printUpdateSummary(fileTree);
+            } else {
+                projectGenerator.generate(projectDir, createProjectOptions());
             }
+        } catch (RuntimeException e) {
             System.out.println("Error during project generation: " + e.getMessage());
             return 1;
         }
 
         if (cmake || open) {
-            File buildDir = new File(projectDir, "build");
-            buildDir.mkdir();
-            CMake.setVerbose(verbose);
-            CMake.generate(projectDir, buildDir);
+            var cmakeRunner = new CMake(verbose, environment);
+            cmakeRunner.generate(projectDir, linkTimeOptimization);
             if (open) {
-                CMake.openVisualStudio(projectDir, buildDir);
+                cmakeRunner.openVisualStudio(projectDir, linkTimeOptimization);
             }
         }
 
@@ -230,11 +436,134 @@ public class GeneratorCli implements Closeable, Flushable {
         return 0;
     }
 
-    private ResourceHandler createResourceHandler() {
-        if (gui) {
-            return new ResourceHandler("gui-template");
+    private static void printUpdateSummary(UpdatingFileTree fileTree) {
+        Map<UpdatingFileTree.Status, Integer> counts = new EnumMap<>(UpdatingFileTree.Status.class);
+        fileTree.getStatuses().forEach((path, status) -> {
+            counts.merge(status, 1, Integer::sum);
+            switch (status) {
+                case CREATED -> System.out.println("Created: " + path);
+                case UPDATED -> System.out.println("Updated: " + path);
+                case KEPT -> System.out.println("Kept, modified since generated (use --force to overwrite): " + path);
+                case UNCHANGED -> { }
+            }
+        });
+        System.out.printf("%d created, %d updated, %d unchanged, %d kept%n",
+                counts.getOrDefault(UpdatingFileTree.Status.CREATED, 0),
+                counts.getOrDefault(UpdatingFileTree.Status.UPDATED, 0),
+                counts.getOrDefault(UpdatingFileTree.Status.UNCHANGED, 0),
+                counts.getOrDefault(UpdatingFileTree.Status.KEPT, 0));
+    }
+
+    private int executeDaemon() {
+        if (daemon != null) {
+            System.out.println("Argument error: --daemon can't be used with --use-daemon");
+            return 2;
+        }
+        TemplateRegistry.warmUp();
+        return new DaemonServer(DaemonProtocol.getDefaultSocket(), Duration.ofSeconds(daemonIdleTimeoutSeconds)).run();
+    }
+
+    // Not shared between the requests of the daemon, the output of the lookups goes to the client of the request
+    // that started them. The Github responses are shared by the cache instead.
+    private GithubLookups createGithubLookups() {
+        return new GithubLookups(createGithub(), GithubGraphQl.fromEnvironment(environment).orElse(null));
+    }
+
+    private GithubRequestScheduler getScheduler() {
+        return GithubRequestScheduler.forToken(GithubRequestScheduler.getTokenFromEnvironment(environment).orElse(null));
+    }
+
+    private Github createGithub() {
+        GithubCache cache = null;
+        if (!noCache) {
+            cache = new GithubCache(GithubCache.getDefaultDirectory(environment), Duration.ofSeconds(cacheTtlSeconds), GithubCache.DEFAULT_MAX_SIZE);
+            cache.setReadOnly(dryRun);
+        }
+        var github = new Github(null, cache, getScheduler());
+
+        commitShaResolvers.forEach((repository, resolver) -> {
+            var githubRepository = GithubRepository.parse(repository);
+            github.withCommitShaResolver(githubRepository.owner(), githubRepository.repo(), CommitShaResolver.of(resolver, environment, workingDir));
+        });
+        return github;
+    }
+
+    private int executeBatch() {
+        if (dryRun || update || cmake || open) {
+            System.out.println("Argument error: --dry-run, --update, --cmake and --open can't be used with --batch");
+            return 2;
+        }
+        GithubLookups githubLookups;
+        List<ProjectOptions> projects;
+        resolveWorkingDir();
+        try {
+            githubLookups = createGithubLookups();
+            projects = BatchGenerator.readManifest(batchManifest);
+        } catch (RuntimeException e) {
+            System.out.println("Argument error: " + e.getMessage());
+            return 2;
+        }
+
+        var batchGenerator = new BatchGenerator(createProjectGenerator(githubLookups));
+        var results = batchGenerator.generate(batchManifest.getAbsoluteFile().getParentFile(), projects);
+        BatchGenerator.printSummary(results);
+        return results.stream().allMatch(BatchGenerator.Result::isSuccess) ? 0 : 1;
+    }
+
+    private void resolveWorkingDir() {
+        if (workingDir == null) {
+            return;
         }
-        return new ResourceHandler("empty-template");
+        if (projectDir != null && !projectDir.isAbsolute()) {
+            projectDir = new File(workingDir, projectDir.getPath());
+        }
+        if (batchManifest != null && !batchManifest.isAbsolute()) {
+            batchManifest = new File(workingDir, batchManifest.getPath());
+        }
+    }
+
+    private ProjectGenerator createProjectGenerator(GithubLookups githubLookups) {
+        var projectGenerator = new ProjectGenerator(githubLookups);
+        projectGenerator.setVerbose(verbose);
+        projectGenerator.setKeepFiles(keepFiles);
+        return projectGenerator;
+    }
+
+    private ProjectOptions createProjectOptions() {
+        var options = new ProjectOptions();
+        options.setName(projectDir.getName());
+        options.setDescription(description);
+        options.setGui(gui);
+        options.setTest(test);
+        options.setBench(bench);
+        options.setLicenseAuthor(licenseAuthor);
+        options.setPrecompiledHeader(precompiledHeader);
+        options.setUnityBuildBatchSize(getUnityBuildBatchSize());
+        options.setCompilerLauncher(compilerLauncher);
+        options.setCiMatrixBuildTypes(ciMatrixBuildTypes);
+        options.setGenerator(generator);
+        options.setLinkTimeOptimization(linkTimeOptimization);
+        options.setProfileGuidedOptimization(profileGuidedOptimization);
+        options.setVcpkgBinaryCache(getVcpkgDir(vcpkgBinaryCache, vcpkgBinaryCacheDir));
+        options.setVcpkgDownloads(getVcpkgDir(vcpkgDownloads, vcpkgDownloadsDir));
+        options.setVcpkgSharedInstalled(getVcpkgDir(vcpkgSharedInstalled, vcpkgSharedInstalledDir));
+        return options;
+    }
+
+    // Zero turns unity builds off.
+    private int getUnityBuildBatchSize() {
+        if (unityBuildBatchSize != null) {
+            return unityBuildBatchSize;
+        }
+        return unityBuild ? DEFAULT_UNITY_BUILD_BATCH_SIZE : 0;
+    }
+
+    // Null adds no presets and the empty string uses the vcpkg user cache, as in the batch manifest.
+    private static String getVcpkgDir(boolean enabled, String dir) {
+        if (dir != null) {
+            return dir;
+        }
+        return enabled ? "" : null;
     }
 
     public void printVersion() {
@@ -247,14 +576,47 @@ public class GeneratorCli implements Closeable, Flushable {
         System.out.println("Version info: v" + properties.getProperty("version"));
     }
 
+    // An unknown generator is an argument error, like any other invalid option value.
+    static class CMakeGeneratorConverter implements CommandLine.ITypeConverter<CMakeGenerator> {
+        @Override
+        public CMakeGenerator convert(String value) {
+            try {
+                return CMakeGenerator.fromOptionName(value);
+            } catch (RuntimeException e) {
+                throw new CommandLine.TypeConversionException(e.getMessage());
+            }
+        }
+    }
+
+    // A negative batch size is an argument error, zero turns unity builds off.
+    static class BatchSizeConverter implements CommandLine.ITypeConverter<Integer> {
+        @Override
+        public Integer convert(String value) {
+            int batchSize;
+            try {
+                batchSize = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new CommandLine.TypeConversionException("'" + value + "' is not an int");
+            }
+            if (batchSize < 0) {
+                throw new CommandLine.TypeConversionException("Batch size must not be negative: " + value);
+            }
+            return batchSize;
+        }
+    }
+
     @Override
     public void close() throws IOException {
-        terminal.close();
+        if (terminal != null) {
+            terminal.close();
+        }
     }
 
     @Override
     public void flush() {
-        terminal.flush();
+        if (terminal != null) {
+            terminal.flush();
+        }
     }
 
 }
@@ -0,0 +1,63 @@
+package se.mwthinker;
+
+import org.apache.commons.exec.CommandLine;
+import org.apache.commons.exec.DefaultExecutor;
+import org.apache.commons.exec.ExecuteWatchdog;
+import org.apache.commons.exec.PumpStreamHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+// Asks the git server for HEAD using "git ls-remote", which is not limited by the Github REST API rate limit.
+public class GitLsRemoteCommitShaResolver implements CommitShaResolver {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String url;
+    private final Map<String, String> environment;
+    private final File workingDir;
+
+    // If url is null, the Github repository url is used.
+    public GitLsRemoteCommitShaResolver(String url) {
+        this(url, System.getenv(), null);
+    }
+
+    // Runs git with the environment and in the working directory of the command, if null in the one of this process.
+    public GitLsRemoteCommitShaResolver(String url, Map<String, String> environment, File workingDir) {
+        this.url = url;
+        this.environment = environment;
+        this.workingDir = workingDir;
+    }
+
+    @Override
+    public Optional<String> resolveLatestCommitSha(String owner, String repo) {
+        var cmdLine = new CommandLine(Executables.find("git", environment))
+                .addArgument("ls-remote")
+                .addArgument(url != null ? url : Github.getRepositoryUrl(owner, repo), false)
+                .addArgument("HEAD");
+
+        var output = new ByteArrayOutputStream();
+        var executor = new DefaultExecutor.Builder<>()
+                .setWorkingDirectory(workingDir != null ? workingDir : new File("."))
+                .get();
+        executor.setStreamHandler(new PumpStreamHandler(output));
+        executor.setWatchdog(ExecuteWatchdog.builder().setTimeout(TIMEOUT).get());
+
+        try {
+            executor.execute(cmdLine, environment);
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+
+        // Output format: "<sha>\tHEAD"
+        return output.toString(StandardCharsets.UTF_8).lines()
+                .map(line -> line.split("\\s+"))
+                .filter(columns -> columns.length == 2 && "HEAD".equals(columns[1]))
+                .map(columns -> columns[0])
+                .findFirst();
+    }
+}
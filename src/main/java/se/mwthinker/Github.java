@@ -3,18 +3,79 @@ package se.mwthinker;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
 import static java.net.HttpURLConnection.HTTP_OK;
 
 public class Github {
+    // Shared by all instances to reuse the connection pool (and TLS sessions) between requests.
+    // Created on first use, so OkHttp is not loaded unless a request is made.
+    private static final class SharedClient {
+        private static final OkHttpClient INSTANCE = new OkHttpClient();
+    }
+
+    private static final String API_URL = "https://api.github.com/repos/";
+    private static final String LATEST_COMMIT_ENDPOINT = "commits?per_page=1&page=1";
+
+    // Readers are immutable and thread safe, built once instead of a new ObjectMapper per request.
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectReader COMMITS_READER = MAPPER.readerFor(RepoCommitContent[].class);
+    private static final ObjectReader FILE_CONTENT_READER = MAPPER.readerFor(RepoFileContent.class);
+
+    private final OkHttpClient client;
+    private final GithubCache cache;
+    private final GithubRequestScheduler scheduler;
+    private final Map<String, CommitShaResolver> commitShaResolvers = new HashMap<>();
+
     public Github() {
+        this(null, null);
+    }
+
+    public Github(GithubCache cache) {
+        this(null, cache);
+    }
+
+    public Github(OkHttpClient client, GithubCache cache) {
+        this(client, cache, null);
+    }
+
+    // If client or scheduler is null, the shared one is used.
+    public Github(OkHttpClient client, GithubCache cache, GithubRequestScheduler scheduler) {
+        this.client = client;
+        this.cache = cache;
+        this.scheduler = scheduler;
+    }
+
+    static OkHttpClient getClient(OkHttpClient client) {
+        return client != null ? client : SharedClient.INSTANCE;
+    }
+
+    // True if the latest commit is resolved without asking Github, i.e. by a resolver or a fresh cache entry.
+    public boolean isLatestCommitShaAnsweredLocally(String owner, String repo) {
+        if (commitShaResolvers.containsKey(owner + "/" + repo)) {
+            return true;
+        }
+        return cache != null && cache.get(owner, repo, LATEST_COMMIT_ENDPOINT).map(cache::isFresh).orElse(false);
+    }
+
+    // The resolver is tried before the Github REST API when fetching the latest commit of the repository.
+    public Github withCommitShaResolver(String owner, String repo, CommitShaResolver resolver) {
+        commitShaResolvers.put(owner + "/" + repo, resolver);
+        return this;
     }
 
     public static String getRepositoryUrl(String owner, String repo) {
@@ -22,42 +83,137 @@ public class Github {
     }
 
     public String fetchLatestCommitSHA(String owner, String repo) {
-        Request request = new Request.Builder()
-                .url("https://api.github.com/repos/" + owner + "/" + repo + "/commits?per_page=1&page=1")
-                .addHeader("Accept", "application/json")
-                .build();
+        var resolver = commitShaResolvers.get(owner + "/" + repo);
+        if (resolver != null) {
+            Optional<String> commitSha;
+            try (var span = Timings.span("resolver", owner + "/" + repo)) {
+                commitSha = resolver.resolveLatestCommitSha(owner, repo);
+                span.arg("resolved", commitSha.isPresent());
+            }
+            if (commitSha.isPresent()) {
+                return commitSha.get();
+            }
+        }
 
-        var client = new OkHttpClient().newBuilder().build();
+        RepoCommitContent[] commits = get(owner, repo, LATEST_COMMIT_ENDPOINT, "application/json", COMMITS_READER);
+        return Arrays.stream(commits)
+                .findFirst()
+                .map(RepoCommitContent::getSha)
+                .orElseThrow();
+    }
 
-        try (Response response = client.newCall(request).execute()) {
-            if (HTTP_OK != response.code()) {
-                throw new RuntimeException(response.message());
+    public VcpkgObject fetchVcpkgObject(String owner, String repo, String commitSha) {
+        RepoFileContent fileContent = get(owner, repo, "contents/vcpkg.json?ref=" + commitSha, "application/vnd.github.object", FILE_CONTENT_READER);
+        return fileContent.getVcpkgObject();
+    }
+
+    // Serves fresh entries from the cache, otherwise revalidates cached entries using ETag/Last-Modified.
+    private <T> T get(String owner, String repo, String endpoint, String accept, ObjectReader reader) {
+        String url = API_URL + owner + "/" + repo + "/" + endpoint;
+        var event = new GithubRequestEvent();
+        event.begin();
+        try (var span = Timings.span("github", "GET " + owner + "/" + repo + "/" + endpoint).arg("url", url)) {
+            Fetched<T> fetched;
+            try {
+                fetched = fetch(owner, repo, endpoint, accept, url, reader);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
             }
-            return Arrays.stream(new ObjectMapper().readValue(Objects.requireNonNull(response.body()).string(), RepoCommitContent[].class))
-                    .findFirst()
-                    .map(RepoCommitContent::getSha)
-                    .orElseThrow();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+            span.arg("status", fetched.cacheHit() && fetched.status() == HTTP_OK ? "cached" : fetched.status());
+            event.end();
+            if (event.shouldCommit()) {
+                event.owner = owner;
+                event.repo = repo;
+                event.endpoint = endpoint;
+                event.status = fetched.status();
+                event.bytes = fetched.bytes();
+                event.cacheHit = fetched.cacheHit();
+                event.commit();
+            }
+            if (fetched.value() == null) {
+                throw new RuntimeException(fetched.message());
+            }
+            return fetched.value();
         }
     }
 
-    public VcpkgObject fetchVcpkgObject(String owner, String repo, String commitSha) {
-        Request request = new Request.Builder()
-                .url("https://api.github.com/repos/" + owner + "/" + repo + "/contents/vcpkg.json" + "?" + commitSha)
-                .method("GET", null)
-                .addHeader("Accept", "application/vnd.github.object")
-                .build();
+    // The value is null if the request failed.
+    private record Fetched<T>(int status, String message, T value, long bytes, boolean cacheHit) {}
 
-        var client = new OkHttpClient().newBuilder().build();
+    private <T> Fetched<T> fetch(String owner, String repo, String endpoint, String accept, String url, ObjectReader reader) throws IOException {
+        Optional<GithubCache.Entry> cached = cache == null ? Optional.empty() : cache.get(owner, repo, endpoint);
+        if (cached.isPresent() && cache.isFresh(cached.get())) {
+            byte[] body = cached.get().body();
+            return new Fetched<>(HTTP_OK, "", reader.readValue(body), body.length, true);
+        }
 
-        try (Response response = client.newCall(request).execute()) {
+        var requestBuilder = new Request.Builder()
+                .url(url)
+                .addHeader("Accept", accept);
+        cached.ifPresent(entry -> {
+            if (entry.etag() != null) {
+                requestBuilder.addHeader("If-None-Match", entry.etag());
+            }
+            if (entry.lastModified() != null) {
+                requestBuilder.addHeader("If-Modified-Since", entry.lastModified());
+            }
+        });
+
+        try (Response response = StartupProfile.measureOnce("first network call", () -> execute(requestBuilder.build()))) {
+            if (HTTP_NOT_MODIFIED == response.code() && cached.isPresent()) {
+                var entry = cached.get().withStoredAt(System.currentTimeMillis());
+                cache.put(owner, repo, endpoint, entry);
+                return new Fetched<>(response.code(), response.message(), reader.readValue(entry.body()), entry.body().length, true);
+            }
             if (HTTP_OK != response.code()) {
-                throw new RuntimeException(response.message());
+                return new Fetched<>(response.code(), response.message(), null, 0, false);
             }
-            return new ObjectMapper().readValue(Objects.requireNonNull(response.body()).string(), RepoFileContent.class).getVcpkgObject();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+            ResponseBody responseBody = Objects.requireNonNull(response.body());
+            if (cache == null) {
+                // Parsed while it is read, the body is never held in memory as a whole.
+                var body = new CountingInputStream(responseBody.byteStream());
+                T value = reader.readValue(body);
+                return new Fetched<>(response.code(), response.message(), value, body.getCount(), false);
+            }
+            // The raw bytes are kept, they are stored in the cache. Parsed first so a broken body is never cached.
+            byte[] body = responseBody.bytes();
+            T value = reader.readValue(body);
+            cache.put(owner, repo, endpoint, new GithubCache.Entry(response.header("ETag"), response.header("Last-Modified"), System.currentTimeMillis(), body));
+            return new Fetched<>(response.code(), response.message(), value, body.length, false);
+        }
+    }
+
+    private Response execute(Request request) {
+        return GithubRequestScheduler.getShared(scheduler).execute(getClient(client), request, GithubRequestScheduler.CORE);
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                ++count;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
         }
     }
 
@@ -66,9 +222,8 @@ public class Github {
         String sha = github.fetchLatestCommitSHA("mwthinker", "CppSdl2");
         VcpkgObject ob = github.fetchVcpkgObject("mwthinker", "CppSdl2", sha);
         System.out.println(sha);
-        ObjectMapper mapper = new ObjectMapper();
         try {
-            System.out.println(mapper.writer(new DefaultPrettyPrinter()).writeValueAsString(ob));
+            System.out.println(MAPPER.writer(new DefaultPrettyPrinter()).writeValueAsString(ob));
         } catch (JsonProcessingException e) {
             throw new RuntimeException(e);
         }
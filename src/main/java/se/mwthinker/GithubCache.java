@@ -0,0 +1,227 @@
+package se.mwthinker;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.SystemUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Disk cache of Github responses, shared between cppgen processes.
+// Each entry is one file: a json metadata line followed by the response body.
+// Entries are written to a temporary file and then atomically moved in place, so a reader never sees a torn entry.
+public class GithubCache {
+    public static final long DEFAULT_MAX_SIZE = 32L * 1024 * 1024;
+
+    private static final String ENTRY_SUFFIX = ".entry";
+    private static final long LOW_WATER_MARK_PERCENT = 80;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // The body is the raw response, it is parsed directly from the bytes.
+    public record Entry(String etag, String lastModified, long storedAt, byte[] body) {
+        public Entry withStoredAt(long storedAt) {
+            return new Entry(etag, lastModified, storedAt, body);
+        }
+    }
+
+    record Metadata(String etag, String lastModified, long storedAt) {}
+
+    private final Path directory;
+    private final Duration ttl;
+    private final long maxSize;
+    private boolean readOnly;
+    // Size of the cache directory, walked on the first put and then changed by every put. Entries written by
+    // other processes make it approximate, it is corrected by the next walk.
+    private long approximateSize = -1;
+    private int walks;
+
+    public GithubCache(Path directory, Duration ttl, long maxSize) {
+        this.directory = directory;
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+    }
+
+    public static Path getDefaultDirectory() {
+        return getDefaultDirectory(System.getenv());
+    }
+
+    public static Path getDefaultDirectory(Map<String, String> environment) {
+        String cacheDir = environment.get("CPPGEN_CACHE_DIR");
+        if (cacheDir != null && !cacheDir.isBlank()) {
+            return Path.of(cacheDir);
+        }
+        if (SystemUtils.IS_OS_WINDOWS && environment.get("LOCALAPPDATA") != null) {
+            return Path.of(environment.get("LOCALAPPDATA"), "cppgen", "cache");
+        }
+        if (SystemUtils.IS_OS_MAC) {
+            return Path.of(SystemUtils.USER_HOME, "Library", "Caches", "cppgen");
+        }
+        String xdgCacheHome = environment.get("XDG_CACHE_HOME");
+        if (xdgCacheHome != null && !xdgCacheHome.isBlank()) {
+            return Path.of(xdgCacheHome, "cppgen");
+        }
+        return Path.of(SystemUtils.USER_HOME, ".cache", "cppgen");
+    }
+
+    // Used by --dry-run, nothing is written to disk.
+    void setReadOnly(boolean readOnly) {
+        this.readOnly = readOnly;
+    }
+
+    public boolean isFresh(Entry entry) {
+        return System.currentTimeMillis() - entry.storedAt() < ttl.toMillis();
+    }
+
+    public Optional<Entry> get(String owner, String repo, String endpoint) {
+        Path file = getEntryFile(owner, repo, endpoint);
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            int newline = indexOfNewline(bytes);
+            if (newline < 0) {
+                return Optional.empty();
+            }
+            var metadata = MAPPER.readValue(bytes, 0, newline, Metadata.class);
+            byte[] body = Arrays.copyOfRange(bytes, newline + 1, bytes.length);
+            if (!readOnly) {
+                touch(file);
+            }
+            return Optional.of(new Entry(metadata.etag(), metadata.lastModified(), metadata.storedAt(), body));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            // A broken entry is treated as a cache miss and is replaced by the next put.
+            return Optional.empty();
+        }
+    }
+
+    public void put(String owner, String repo, String endpoint, Entry entry) {
+        if (readOnly) {
+            return;
+        }
+        Path file = getEntryFile(owner, repo, endpoint);
+        try {
+            Files.createDirectories(file.getParent());
+            var bytes = new ByteArrayOutputStream();
+            MAPPER.writeValue(bytes, new Metadata(entry.etag(), entry.lastModified(), entry.storedAt()));
+            bytes.write('\n');
+            bytes.write(entry.body());
+
+            // E.g. a revalidated entry replaces itself.
+            long replacedSize = getSize(file);
+            Path tmpFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try {
+                Files.write(tmpFile, bytes.toByteArray());
+                Files.move(tmpFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tmpFile);
+            }
+            evictIfFull(bytes.size() - replacedSize);
+        } catch (IOException | UncheckedIOException e) {
+            // The cache is only an optimization, the response is still used.
+        }
+    }
+
+    private static long getSize(Path file) throws IOException {
+        try {
+            return Files.size(file);
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    // The directory is only walked when the cache may be full, not on every put.
+    private synchronized void evictIfFull(long addedSize) throws IOException {
+        if (approximateSize >= 0) {
+            approximateSize += addedSize;
+        }
+        if (approximateSize < 0 || approximateSize > maxSize) {
+            approximateSize = evictLeastRecentlyUsed();
+        }
+    }
+
+    // Number of times the directory was walked.
+    synchronized int getWalks() {
+        return walks;
+    }
+
+    // When over the max size, removes the least recently used entries until the cache is at the low water mark,
+    // so the following puts fit without a new walk. Returns the size left.
+    private long evictLeastRecentlyUsed() throws IOException {
+        record CacheFile(Path path, long size, FileTime lastUsed) {}
+
+        ++walks;
+        List<CacheFile> files = new ArrayList<>();
+        try (var paths = Files.walk(directory)) {
+            for (Path path : paths.filter(p -> p.toString().endsWith(ENTRY_SUFFIX)).toList()) {
+                try {
+                    files.add(new CacheFile(path, Files.size(path), Files.getLastModifiedTime(path)));
+                } catch (NoSuchFileException e) {
+                    // Removed by another process.
+                }
+            }
+        }
+
+        long totalSize = files.stream().mapToLong(CacheFile::size).sum();
+        if (totalSize <= maxSize) {
+            return totalSize;
+        }
+        long lowWaterMark = maxSize * LOW_WATER_MARK_PERCENT / 100;
+        files.sort(Comparator.comparing(CacheFile::lastUsed));
+        // The most recently used entry, i.e. the one just put, is kept.
+        for (var file : files.subList(0, files.size() - 1)) {
+            if (totalSize <= lowWaterMark) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(file.path());
+            } catch (IOException e) {
+                // May be in use by another process, try the next one.
+                continue;
+            }
+            totalSize -= file.size();
+        }
+        return totalSize;
+    }
+
+    private Path getEntryFile(String owner, String repo, String endpoint) {
+        return directory
+                .resolve(encode(owner))
+                .resolve(encode(repo))
+                .resolve(encode(endpoint) + ENTRY_SUFFIX);
+    }
+
+    private static String encode(String name) {
+        return URLEncoder.encode(name, StandardCharsets.UTF_8);
+    }
+
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Only used for eviction order.
+        }
+    }
+
+    private static int indexOfNewline(byte[] bytes) {
+        for (int i = 0; i < bytes.length; ++i) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
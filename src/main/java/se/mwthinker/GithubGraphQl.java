@@ -0,0 +1,114 @@
+package se.mwthinker;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import static java.net.HttpURLConnection.HTTP_OK;
+
+// Looks up the latest commit, and the vcpkg.json at that commit, of many repositories in one request to the
+// Github GraphQL API. Requires a token, the REST API is used without one.
+public class GithubGraphQl {
+    public static final String DEFAULT_ENDPOINT = "https://api.github.com/graphql";
+
+    private static final MediaType JSON = MediaType.get("application/json");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // The vcpkg.json is null if not requested or missing in the repository.
+    public record Result(String commitSha, String vcpkgJson) {}
+
+    private final OkHttpClient client;
+    private final GithubRequestScheduler scheduler;
+    private final String endpoint;
+    private final String token;
+
+    public GithubGraphQl(OkHttpClient client, String endpoint, String token) {
+        this(client, null, endpoint, token);
+    }
+
+    // If client or scheduler is null, the one shared with Github is used.
+    public GithubGraphQl(OkHttpClient client, GithubRequestScheduler scheduler, String endpoint, String token) {
+        this.client = client;
+        this.scheduler = scheduler;
+        this.endpoint = endpoint;
+        this.token = token;
+    }
+
+    // Uses GITHUB_TOKEN (or GH_TOKEN), and CPPGEN_GITHUB_GRAPHQL_URL for e.g. Github Enterprise.
+    public static Optional<GithubGraphQl> fromEnvironment() {
+        return fromEnvironment(System.getenv());
+    }
+
+    // The daemon passes the environment of the client.
+    public static Optional<GithubGraphQl> fromEnvironment(Map<String, String> environment) {
+        String endpoint = environment.get("CPPGEN_GITHUB_GRAPHQL_URL");
+        return GithubRequestScheduler.getTokenFromEnvironment(environment)
+                .map(token -> new GithubGraphQl(null, GithubRequestScheduler.forToken(token),
+                        endpoint == null || endpoint.isBlank() ? DEFAULT_ENDPOINT : endpoint, token));
+    }
+
+    // Repositories not found are missing in the result.
+    public Map<GithubRepository, Result> fetch(List<GithubRepository> repositories, boolean withVcpkgJson) {
+        var request = new Request.Builder()
+                .url(endpoint)
+                .addHeader("Authorization", "bearer " + token)
+                .post(RequestBody.create(createBody(repositories, withVcpkgJson), JSON))
+                .build();
+
+        try (var span = Timings.span("github", "POST graphql (" + repositories.size() + " repositories)").arg("url", endpoint);
+             Response response = GithubRequestScheduler.getShared(scheduler).execute(Github.getClient(client), request, GithubRequestScheduler.GRAPHQL)) {
+            span.arg("status", response.code());
+            if (HTTP_OK != response.code()) {
+                throw new RuntimeException("Github GraphQL: " + response.code() + " " + response.message());
+            }
+            JsonNode data = MAPPER.readTree(Objects.requireNonNull(response.body()).byteStream()).path("data");
+
+            Map<GithubRepository, Result> results = new LinkedHashMap<>();
+            for (int i = 0; i < repositories.size(); ++i) {
+                JsonNode target = data.path("r" + i).path("defaultBranchRef").path("target");
+                if (target.hasNonNull("oid")) {
+                    JsonNode text = target.path("file").path("object").path("text");
+                    results.put(repositories.get(i), new Result(target.get("oid").asText(), text.isTextual() ? text.asText() : null));
+                }
+            }
+            return results;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // The owners and names are passed as variables, so they don't need escaping.
+    private static byte[] createBody(List<GithubRepository> repositories, boolean withVcpkgJson) {
+        var declarations = new StringBuilder();
+        var fields = new StringBuilder();
+        Map<String, String> variables = new LinkedHashMap<>();
+        for (int i = 0; i < repositories.size(); ++i) {
+            declarations.append(i == 0 ? "" : ", ").append("$o").append(i).append(": String!, $n").append(i).append(": String!");
+            fields.append("  r").append(i).append(": repository(owner: $o").append(i).append(", name: $n").append(i).append(") {\n")
+                    .append("    defaultBranchRef { target { ... on Commit { oid");
+            if (withVcpkgJson) {
+                fields.append(" file(path: \"vcpkg.json\") { object { ... on Blob { text } } }");
+            }
+            fields.append(" } } }\n  }\n");
+            variables.put("o" + i, repositories.get(i).owner());
+            variables.put("n" + i, repositories.get(i).repo());
+        }
+        String query = "query(" + declarations + ") {\n" + fields + "}";
+        try {
+            return MAPPER.writeValueAsBytes(Map.of("query", query, "variables", variables));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
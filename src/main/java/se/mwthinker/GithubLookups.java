@@ -0,0 +1,163 @@
+package se.mwthinker;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Resolves Github lookups concurrently on virtual threads. Each repository is only looked up once.
+// With GraphQL, lookups known in advance are prefetched in one request, the REST API is used for the rest.
+public class GithubLookups {
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    private static final ObjectReader VCPKG_OBJECT_READER = new ObjectMapper().readerFor(VcpkgObject.class);
+
+    private final Github github;
+    private final GithubGraphQl graphQl;
+    private final Map<String, CompletableFuture<String>> commitShas = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<VcpkgObject>> vcpkgObjects = new ConcurrentHashMap<>();
+
+    public GithubLookups(Github github) {
+        this(github, null);
+    }
+
+    // If graphQl is null, only the REST API is used.
+    public GithubLookups(Github github, GithubGraphQl graphQl) {
+        this.github = github;
+        this.graphQl = graphQl;
+    }
+
+    // Starts the lookups of the latest commits, and of the vcpkg.json files (and their latest commits), in one
+    // GraphQL request. Lookups it doesn't answer, or all of them if it fails, are made with the REST API.
+    // Repositories already looked up, or answered locally by a resolver or the cache, are left out.
+    public void prefetch(List<GithubRepository> latestCommits, List<GithubRepository> vcpkgJsons) {
+        if (graphQl == null) {
+            return;
+        }
+
+        Map<GithubRepository, CompletableFuture<String>> prefetchedShas = new LinkedHashMap<>();
+        Map<GithubRepository, CompletableFuture<VcpkgObject>> prefetchedVcpkgObjects = new LinkedHashMap<>();
+        for (var repository : Stream.concat(latestCommits.stream(), vcpkgJsons.stream()).distinct().toList()) {
+            if (!github.isLatestCommitShaAnsweredLocally(repository.owner(), repository.repo())) {
+                claim(commitShas, repository).ifPresent(future -> prefetchedShas.put(repository, future));
+            }
+        }
+        for (var repository : vcpkgJsons) {
+            if (prefetchedShas.containsKey(repository)) {
+                claim(vcpkgObjects, repository).ifPresent(future -> prefetchedVcpkgObjects.put(repository, future));
+            }
+        }
+        if (prefetchedShas.isEmpty()) {
+            return;
+        }
+
+        var repositories = List.copyOf(prefetchedShas.keySet());
+        CompletableFuture.supplyAsync(() -> graphQl.fetch(repositories, !prefetchedVcpkgObjects.isEmpty()), EXECUTOR)
+                .whenComplete((results, e) -> {
+                    Map<GithubRepository, GithubGraphQl.Result> answered = results != null ? results : Map.of();
+                    prefetchedShas.forEach((repository, future) -> {
+                        var result = answered.get(repository);
+                        if (result != null) {
+                            future.complete(result.commitSha());
+                        } else {
+                            completeWith(future, CompletableFuture.supplyAsync(() -> github.fetchLatestCommitSHA(repository.owner(), repository.repo()), EXECUTOR));
+                        }
+                    });
+                    prefetchedVcpkgObjects.forEach((repository, future) -> {
+                        var result = answered.get(repository);
+                        if (result != null && result.vcpkgJson() != null) {
+                            completeWith(future, CompletableFuture.supplyAsync(() -> parseVcpkgObject(result.vcpkgJson()), EXECUTOR));
+                        } else {
+                            completeWith(future, prefetchedShas.get(repository)
+                                    .thenApplyAsync(commitSha -> github.fetchVcpkgObject(repository.owner(), repository.repo(), commitSha), EXECUTOR));
+                        }
+                    });
+                });
+    }
+
+    public CompletableFuture<String> latestCommitSha(String owner, String repo) {
+        return lookup(commitShas, getKey(owner, repo), () ->
+                CompletableFuture.supplyAsync(() -> github.fetchLatestCommitSHA(owner, repo), EXECUTOR));
+    }
+
+    public CompletableFuture<VcpkgObject> vcpkgObject(String owner, String repo) {
+        return lookup(vcpkgObjects, getKey(owner, repo), () ->
+                latestCommitSha(owner, repo).thenApplyAsync(commitSha -> github.fetchVcpkgObject(owner, repo, commitSha), EXECUTOR));
+    }
+
+    // The vcpkg.json at the commit, e.g. of an external project pinned by an update.
+    public CompletableFuture<VcpkgObject> vcpkgObject(String owner, String repo, String commitSha) {
+        return lookup(vcpkgObjects, getKey(owner, repo) + "@" + commitSha, () ->
+                CompletableFuture.supplyAsync(() -> github.fetchVcpkgObject(owner, repo, commitSha), EXECUTOR));
+    }
+
+    // A failed lookup is forgotten, so it is retried by the next lookup (e.g. the next request to the daemon).
+    private static <T> CompletableFuture<T> lookup(Map<String, CompletableFuture<T>> lookups, String key, Supplier<CompletableFuture<T>> supplier) {
+        var future = lookups.computeIfAbsent(key, _ -> supplier.get());
+        forgetOnFailure(lookups, key, future);
+        return future;
+    }
+
+    // Waits for the lookup and rethrows the original exception thrown by Github.
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    // Returns the lookup to complete, or empty if the repository is already looked up.
+    private static <T> Optional<CompletableFuture<T>> claim(Map<String, CompletableFuture<T>> lookups, GithubRepository repository) {
+        String key = getKey(repository.owner(), repository.repo());
+        var future = new CompletableFuture<T>();
+        if (lookups.putIfAbsent(key, future) != null) {
+            return Optional.empty();
+        }
+        forgetOnFailure(lookups, key, future);
+        return Optional.of(future);
+    }
+
+    private static <T> void forgetOnFailure(Map<String, CompletableFuture<T>> lookups, String key, CompletableFuture<T> future) {
+        future.whenComplete((_, e) -> {
+            if (e != null) {
+                lookups.remove(key, future);
+            }
+        });
+    }
+
+    private static <T> void completeWith(CompletableFuture<T> future, CompletableFuture<T> source) {
+        source.whenComplete((value, e) -> {
+            if (e != null) {
+                future.completeExceptionally(e);
+            } else {
+                future.complete(value);
+            }
+        });
+    }
+
+    private static VcpkgObject parseVcpkgObject(String vcpkgJson) {
+        try {
+            return VCPKG_OBJECT_READER.readValue(vcpkgJson);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String getKey(String owner, String repo) {
+        return owner + "/" + repo;
+    }
+}
@@ -0,0 +1,18 @@
+package se.mwthinker;
+
+public record GithubRepository(String owner, String repo) {
+
+    // Parses "owner/repo".
+    public static GithubRepository parse(String repository) {
+        String[] ownerAndRepo = repository.split("/", 2);
+        if (ownerAndRepo.length != 2 || ownerAndRepo[0].isBlank() || ownerAndRepo[1].isBlank()) {
+            throw new RuntimeException("Repository must be given as OWNER/REPO: " + repository);
+        }
+        return new GithubRepository(ownerAndRepo[0].trim(), ownerAndRepo[1].trim());
+    }
+
+    @Override
+    public String toString() {
+        return owner + "/" + repo;
+    }
+}
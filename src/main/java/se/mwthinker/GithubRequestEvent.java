@@ -0,0 +1,36 @@
+package se.mwthinker;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Flight recorder event for a Github REST request, also when answered by the cache.
+@Name("se.mwthinker.GithubRequest")
+@Label("Github Request")
+@Category({ "cppgen", "Network" })
+@Description("A Github REST API request")
+@StackTrace(false)
+class GithubRequestEvent extends jdk.jfr.Event {
+    @Label("Owner")
+    String owner;
+
+    @Label("Repository")
+    String repo;
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Status")
+    @Description("HTTP status, 200 for a fresh cache entry and 304 for a revalidated one")
+    int status;
+
+    @Label("Response Size")
+    @DataAmount
+    long bytes;
+
+    @Label("Cache Hit")
+    boolean cacheHit;
+}
@@ -0,0 +1,261 @@
+package se.mwthinker;
+
+import jdk.jfr.FlightRecorder;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Sends the Github requests. Authenticates with a token when available, limits the requests in flight,
+// waits when the rate limit is used up and retries server errors and network failures with backoff.
+// Shared per token by default, the rate limit belongs to the token (or the ip address) and not to a single Github instance.
+public class GithubRequestScheduler {
+    public static final String CORE = "core";
+    public static final String GRAPHQL = "graphql";
+
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 8;
+    public static final int DEFAULT_MAX_RETRIES = 4;
+    public static final Duration DEFAULT_MAX_WAIT = Duration.ofMinutes(5);
+
+    private static final Duration INITIAL_BACKOFF = Duration.ofMillis(500);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    // Keyed by the token, the empty string is anonymous.
+    private static final class Shared {
+        private static final Map<String, GithubRequestScheduler> INSTANCES = new ConcurrentHashMap<>();
+
+        static {
+            FlightRecorder.addPeriodicEvent(GithubRequestStatisticsEvent.class,
+                    () -> INSTANCES.values().forEach(GithubRequestScheduler::commitStatisticsEvent));
+        }
+    }
+
+    public record Statistics(long requests, long retries, Duration throttledWait) {}
+
+    // The rate limit of one resource (core, graphql, ...), remaining is unknown until the first response.
+    private static final class Budget {
+        long remaining = -1;
+        long resetMillis;
+        int inFlight;
+    }
+
+    private final String token;
+    private final Semaphore concurrentRequests;
+    private final int maxRetries;
+    private final Duration maxWait;
+    private final Duration initialBackoff;
+    private final Map<String, Budget> budgets = new HashMap<>();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder throttledNanos = new LongAdder();
+
+    // If token is null, requests are anonymous (60 requests per hour).
+    public GithubRequestScheduler(String token, int maxConcurrentRequests, int maxRetries, Duration maxWait) {
+        this(token, maxConcurrentRequests, maxRetries, maxWait, INITIAL_BACKOFF);
+    }
+
+    GithubRequestScheduler(String token, int maxConcurrentRequests, int maxRetries, Duration maxWait, Duration initialBackoff) {
+        this.token = token;
+        this.concurrentRequests = new Semaphore(maxConcurrentRequests, true);
+        this.maxRetries = maxRetries;
+        this.maxWait = maxWait;
+        this.initialBackoff = initialBackoff;
+    }
+
+    // The token is read from the environment on every call, so a changed token is used by the next request.
+    static GithubRequestScheduler getShared(GithubRequestScheduler scheduler) {
+        return scheduler != null ? scheduler : forToken(getTokenFromEnvironment().orElse(null));
+    }
+
+    // The scheduler shared by every request using the token, null is anonymous.
+    public static GithubRequestScheduler forToken(String token) {
+        return Shared.INSTANCES.computeIfAbsent(token == null ? "" : token, key -> new GithubRequestScheduler(key.isEmpty() ? null : key,
+                DEFAULT_MAX_CONCURRENT_REQUESTS, DEFAULT_MAX_RETRIES, DEFAULT_MAX_WAIT, INITIAL_BACKOFF));
+    }
+
+    // GITHUB_TOKEN, or GH_TOKEN as used by the Github CLI.
+    public static Optional<String> getTokenFromEnvironment() {
+        return getTokenFromEnvironment(System.getenv());
+    }
+
+    public static Optional<String> getTokenFromEnvironment(Map<String, String> environment) {
+        String token = Optional.ofNullable(environment.get("GITHUB_TOKEN")).orElse(environment.get("GH_TOKEN"));
+        return token == null || token.isBlank() ? Optional.empty() : Optional.of(token);
+    }
+
+    public Statistics getStatistics() {
+        return new Statistics(requests.sum(), retries.sum(), Duration.ofNanos(throttledNanos.sum()));
+    }
+
+    private void commitStatisticsEvent() {
+        var event = new GithubRequestStatisticsEvent();
+        if (event.shouldCommit()) {
+            var statistics = getStatistics();
+            event.requests = statistics.requests();
+            event.retries = statistics.retries();
+            event.throttledWait = statistics.throttledWait().toMillis();
+            event.coreRemaining = getRemaining(CORE).orElse(-1L);
+            event.commit();
+        }
+    }
+
+    // Remaining requests of the resource, empty before the first response.
+    public synchronized Optional<Long> getRemaining(String resource) {
+        var budget = budgets.get(resource);
+        return budget == null || budget.remaining < 0 ? Optional.empty() : Optional.of(budget.remaining);
+    }
+
+    // Returns the response of the last attempt, which may be a server error when out of retries.
+    public Response execute(OkHttpClient client, Request request, String resource) {
+        if (token != null && request.header("Authorization") == null) {
+            request = request.newBuilder().addHeader("Authorization", "Bearer " + token).build();
+        }
+        try {
+            return executeWithRetries(client, request, resource);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Response executeWithRetries(OkHttpClient client, Request request, String resource) throws InterruptedException {
+        for (int attempt = 0; ; ++attempt) {
+            if (attempt > 0) {
+                retries.increment();
+            }
+            reserve(resource);
+            Response response;
+            try {
+                response = send(client, request);
+            } catch (IOException e) {
+                release(resource, null);
+                if (attempt >= maxRetries) {
+                    throw new UncheckedIOException(e);
+                }
+                backoff(attempt);
+                continue;
+            } catch (InterruptedException e) {
+                release(resource, null);
+                throw e;
+            }
+            release(resource, response);
+
+            if (isRateLimited(response)) {
+                if (attempt >= maxRetries) {
+                    return response;
+                }
+                // When Github tells when to retry, reserve waits until then.
+                boolean toldWhen = response.header("Retry-After") != null || "0".equals(response.header("X-RateLimit-Remaining"));
+                response.close();
+                if (!toldWhen) {
+                    backoff(attempt);
+                }
+                continue;
+            }
+            if (isServerError(response.code()) && attempt < maxRetries) {
+                response.close();
+                backoff(attempt);
+                continue;
+            }
+            return response;
+        }
+    }
+
+    // Only the request holds a permit, not the waits between the attempts, so a rate limited resource
+    // does not block the requests to the other resources.
+    private Response send(OkHttpClient client, Request request) throws IOException, InterruptedException {
+        concurrentRequests.acquire();
+        try {
+            requests.increment();
+            return client.newCall(request).execute();
+        } finally {
+            concurrentRequests.release();
+        }
+    }
+
+    // Waits until the resource has requests left, fails if the wait would be longer than the max wait.
+    private void reserve(String resource) throws InterruptedException {
+        while (true) {
+            long waitMillis;
+            synchronized (this) {
+                var budget = budgets.computeIfAbsent(resource, _ -> new Budget());
+                long now = System.currentTimeMillis();
+                if (budget.remaining < 0 || now >= budget.resetMillis || budget.remaining > budget.inFlight) {
+                    ++budget.inFlight;
+                    return;
+                }
+                waitMillis = budget.resetMillis - now;
+            }
+            if (waitMillis > maxWait.toMillis()) {
+                throw new RuntimeException("Github rate limit exceeded, resets at " + Instant.now().plusMillis(waitMillis).truncatedTo(ChronoUnit.SECONDS)
+                        + (token == null ? ". Set GITHUB_TOKEN to use a higher rate limit." : "."));
+            }
+            long start = System.nanoTime();
+            try (var _ = Timings.span("github", "rate limit wait").arg("resource", resource)) {
+                Thread.sleep(waitMillis);
+            } finally {
+                throttledNanos.add(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private synchronized void release(String resource, Response response) {
+        var budget = budgets.get(resource);
+        --budget.inFlight;
+        if (response == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        String remaining = response.header("X-RateLimit-Remaining");
+        String reset = response.header("X-RateLimit-Reset");
+        if (remaining != null && reset != null) {
+            try {
+                budget.remaining = Long.parseLong(remaining);
+                budget.resetMillis = Long.parseLong(reset) * 1000;
+            } catch (NumberFormatException e) {
+                // Ignored, the next response updates the budget.
+            }
+        }
+        // Secondary rate limits only give Retry-After, nothing is sent until it has passed.
+        String retryAfter = response.header("Retry-After");
+        if (retryAfter != null && isRateLimited(response)) {
+            try {
+                budget.remaining = 0;
+                budget.resetMillis = Math.max(budget.resetMillis, now + Long.parseLong(retryAfter) * 1000);
+            } catch (NumberFormatException e) {
+                budget.resetMillis = Math.max(budget.resetMillis, now + MAX_BACKOFF.toMillis());
+            }
+        }
+    }
+
+    private static boolean isRateLimited(Response response) {
+        if (response.code() == 429) {
+            return true;
+        }
+        return response.code() == 403 && ("0".equals(response.header("X-RateLimit-Remaining")) || response.header("Retry-After") != null);
+    }
+
+    private static boolean isServerError(int code) {
+        return code == 500 || code == 502 || code == 503 || code == 504;
+    }
+
+    // Exponential backoff with full jitter, so concurrent retries are spread out.
+    private void backoff(int attempt) throws InterruptedException {
+        long maxMillis = Math.min(MAX_BACKOFF.toMillis(), initialBackoff.toMillis() << Math.min(attempt, 20));
+        Thread.sleep(ThreadLocalRandom.current().nextLong(maxMillis + 1));
+    }
+}
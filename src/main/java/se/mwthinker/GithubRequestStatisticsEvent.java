@@ -0,0 +1,34 @@
+package se.mwthinker;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// Flight recorder event with the counters of the shared Github request scheduler, emitted periodically.
+@Name("se.mwthinker.GithubRequestStatistics")
+@Label("Github Request Statistics")
+@Category({ "cppgen", "Network" })
+@Description("Counters of the Github request scheduler since start")
+@StackTrace(false)
+@Period("10 s")
+class GithubRequestStatisticsEvent extends jdk.jfr.Event {
+    @Label("Requests")
+    @Description("Requests sent, including retries")
+    long requests;
+
+    @Label("Retries")
+    long retries;
+
+    @Label("Throttled Wait")
+    @Description("Total time spent waiting for the rate limit to reset")
+    @Timespan(Timespan.MILLISECONDS)
+    long throttledWait;
+
+    @Label("Core Remaining")
+    @Description("Remaining requests of the core rate limit, -1 if unknown")
+    long coreRemaining;
+}
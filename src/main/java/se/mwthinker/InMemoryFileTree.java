@@ -0,0 +1,36 @@
+package se.mwthinker;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Keeps the generated files in memory, e.g. for --dry-run. Files are sorted by path.
+public class InMemoryFileTree implements FileTree {
+    private final NavigableMap<String, byte[]> files = new ConcurrentSkipListMap<>();
+    private final Set<String> directories = new ConcurrentSkipListSet<>();
+
+    @Override
+    public void createDirectory(String path) {
+        directories.add(normalize(path));
+    }
+
+    @Override
+    public void write(String path, byte[] content) {
+        files.put(normalize(path), content);
+    }
+
+    public Map<String, byte[]> getFiles() {
+        return Collections.unmodifiableMap(files);
+    }
+
+    public Set<String> getDirectories() {
+        return Collections.unmodifiableSet(directories);
+    }
+
+    private static String normalize(String path) {
+        return path.startsWith("./") ? path.substring(2) : path;
+    }
+}
@@ -0,0 +1,68 @@
+package se.mwthinker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+// Reads HEAD directly from the files of a local git repository (a checkout, a worktree or a bare mirror).
+public class LocalGitCommitShaResolver implements CommitShaResolver {
+    private final Path repositoryDir;
+
+    public LocalGitCommitShaResolver(Path repositoryDir) {
+        this.repositoryDir = repositoryDir;
+    }
+
+    @Override
+    public Optional<String> resolveLatestCommitSha(String owner, String repo) {
+        try {
+            Path gitDir = getGitDir();
+            String head = Files.readString(gitDir.resolve("HEAD")).trim();
+            if (!head.startsWith("ref:")) {
+                return Optional.of(head); // Detached HEAD
+            }
+            return resolveRef(getCommonDir(gitDir), head.substring("ref:".length()).trim());
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private Path getGitDir() throws IOException {
+        Path dotGit = repositoryDir.resolve(".git");
+        if (Files.isDirectory(dotGit)) {
+            return dotGit;
+        }
+        if (Files.isRegularFile(dotGit)) {
+            // Worktree or submodule, contains "gitdir: <path>".
+            String content = Files.readString(dotGit).trim();
+            return repositoryDir.resolve(content.substring("gitdir:".length()).trim());
+        }
+        return repositoryDir; // Bare repository
+    }
+
+    private static Path getCommonDir(Path gitDir) throws IOException {
+        Path commonDir = gitDir.resolve("commondir");
+        if (Files.isRegularFile(commonDir)) {
+            return gitDir.resolve(Files.readString(commonDir).trim());
+        }
+        return gitDir;
+    }
+
+    private static Optional<String> resolveRef(Path gitDir, String ref) throws IOException {
+        Path refFile = gitDir.resolve(ref);
+        if (Files.isRegularFile(refFile)) {
+            return Optional.of(Files.readString(refFile).trim());
+        }
+
+        Path packedRefs = gitDir.resolve("packed-refs");
+        if (!Files.isRegularFile(packedRefs)) {
+            return Optional.empty();
+        }
+        try (var lines = Files.lines(packedRefs)) {
+            return lines
+                    .filter(line -> line.endsWith(" " + ref))
+                    .map(line -> line.substring(0, line.indexOf(' ')))
+                    .findFirst();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package se.mwthinker;
+
+// Records the hash of every written file in the manifest.
+public class ManifestFileTree implements FileTree {
+    private final FileTree fileTree;
+    private final GeneratedFilesManifest manifest;
+
+    public ManifestFileTree(FileTree fileTree, GeneratedFilesManifest manifest) {
+        this.fileTree = fileTree;
+        this.manifest = manifest;
+    }
+
+    @Override
+    public void createDirectory(String path) {
+        fileTree.createDirectory(path);
+    }
+
+    @Override
+    public void write(String path, byte[] content) {
+        fileTree.write(path, content);
+        if (!GeneratedFilesManifest.PATH.equals(path)) {
+            manifest.put(path, GeneratedFilesManifest.hash(content));
+        }
+    }
+}
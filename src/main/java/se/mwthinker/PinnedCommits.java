@@ -0,0 +1,80 @@
+package se.mwthinker;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// The commits an existing project was generated with: the vcpkg baseline, the registry baselines and the external
+// projects. An update keeps them, a new baseline makes CMake reconfigure and vcpkg reinstall every package.
+public final class PinnedCommits {
+    private static final Pattern GITHUB_URL = Pattern.compile("https://github\\.com/([^/\\s]+)/([^/\\s]+?)(\\.git)?/?");
+    private static final Pattern FETCH_CONTENT = Pattern.compile("GIT_REPOSITORY\\s+(\\S+)\\s+GIT_TAG\\s+(\\S+)");
+
+    private PinnedCommits() {
+    }
+
+    // Missing files pin nothing, the commits are then looked up as for a new project.
+    public static Map<GithubRepository, String> read(File projectDir) {
+        Map<GithubRepository, String> commits = new LinkedHashMap<>();
+        readVcpkgConfiguration(new File(projectDir, "vcpkg-configuration.json"), commits);
+        readExternalFetchContent(new File(projectDir, "ExternalFetchContent.cmake"), commits);
+        return commits;
+    }
+
+    private static void readVcpkgConfiguration(File file, Map<GithubRepository, String> commits) {
+        if (!file.isFile()) {
+            return;
+        }
+        VcpkgConfigurationObject configuration;
+        try {
+            configuration = new ObjectMapper().readValue(file, VcpkgConfigurationObject.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read " + file + ": " + e.getMessage(), e);
+        }
+        var defaultRegistry = configuration.getDefaultRegistry();
+        if (defaultRegistry != null) {
+            put(commits, defaultRegistry.getRepository(), defaultRegistry.getBaseline());
+        }
+        if (configuration.getRegistries() != null) {
+            configuration.getRegistries().forEach(registry -> put(commits, registry.getRepository(), registry.getBaseline()));
+        }
+    }
+
+    private static void readExternalFetchContent(File file, Map<GithubRepository, String> commits) {
+        if (!file.isFile()) {
+            return;
+        }
+        String content;
+        try {
+            content = Files.readString(file.toPath());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read " + file + ": " + e.getMessage(), e);
+        }
+        Matcher matcher = FETCH_CONTENT.matcher(content);
+        while (matcher.find()) {
+            put(commits, matcher.group(1), matcher.group(2));
+        }
+    }
+
+    private static void put(Map<GithubRepository, String> commits, String url, String commitSha) {
+        if (url != null && commitSha != null && !commitSha.isBlank()) {
+            parseRepositoryUrl(url).ifPresent(repository -> commits.put(repository, commitSha));
+        }
+    }
+
+    // Empty if the repository is not on Github, it is never looked up.
+    static Optional<GithubRepository> parseRepositoryUrl(String url) {
+        Matcher matcher = GITHUB_URL.matcher(url.trim());
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        return Optional.of(new GithubRepository(matcher.group(1), matcher.group(2)));
+    }
+}
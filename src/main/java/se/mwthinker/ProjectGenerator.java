@@ -0,0 +1,135 @@
+package se.mwthinker;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Generates projects. Can be used from several threads, the Github lookups and template handlers are shared.
+public class ProjectGenerator {
+    private final GithubLookups githubLookups;
+    private final Map<String, ResourceHandler> resourceHandlers = new ConcurrentHashMap<>();
+    private boolean verbose;
+    private boolean keepFiles;
+
+    public ProjectGenerator(GithubLookups githubLookups) {
+        this.githubLookups = githubLookups;
+    }
+
+    void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    void setKeepFiles(boolean keepFiles) {
+        this.keepFiles = keepFiles;
+    }
+
+    // The project is generated in a staging directory and published when complete.
+    // On failure only the files created by the generation are removed, unless keep files is set.
+    public void generate(File projectDir, ProjectOptions options) {
+        var stagedProject = StagedProject.create(projectDir);
+
+        System.out.println("Generating project in: " + projectDir.getName());
+        var manifest = new GeneratedFilesManifest();
+        var fileTree = new ManifestFileTree(new DiskFileTree(stagedProject.getStagingDir(), stagedProject.getJournal()), manifest);
+        FileSystem fileSystem = new FileSystem(projectDir.getName(), fileTree, getResourceHandler(options));
+        fileSystem.setVerbose(verbose);
+
+        try {
+            fileSystem.createDirectory("data");
+            createCMakeBuilder(fileSystem, options).buildFiles();
+            fileSystem.saveToFile(manifest, GeneratedFilesManifest.PATH);
+            try (var _ = Timings.span("phase", "publish")) {
+                stagedProject.publish();
+            }
+        } catch (RuntimeException e) {
+            if (keepFiles) {
+                keepGeneratedFiles(stagedProject, e);
+            } else {
+                System.out.println("Cleaning up generated files due to error.");
+                stagedProject.rollback();
+            }
+            throw e;
+        }
+    }
+
+    // Regenerates an existing project, only the files whose content changed are written.
+    // Files modified by the user since they were generated are kept, unless overwrite is set.
+    // The vcpkg baseline and the external projects keep their commits, unless upgrade dependencies is set.
+    public UpdatingFileTree update(File projectDir, ProjectOptions options, boolean overwrite, boolean upgradeDependencies) {
+        if (!projectDir.isDirectory()) {
+            throw new RuntimeException("Project folder does not exist: " + projectDir.getAbsolutePath());
+        }
+
+        System.out.println("Updating project in: " + projectDir.getName());
+        var fileTree = new UpdatingFileTree(projectDir, GeneratedFilesManifest.read(projectDir), overwrite);
+        FileSystem fileSystem = new FileSystem(projectDir.getName(), fileTree, getResourceHandler(options));
+        fileSystem.setVerbose(verbose);
+        fileSystem.createDirectory("data");
+        var cmakeBuilder = createCMakeBuilder(fileSystem, options);
+        if (!upgradeDependencies) {
+            cmakeBuilder.withPinnedCommits(PinnedCommits.read(projectDir));
+        }
+        cmakeBuilder.buildFiles();
+        fileSystem.saveToFile(fileTree.getManifest(), GeneratedFilesManifest.PATH);
+        return fileTree;
+    }
+
+    // Generates the project in memory, nothing is written to disk.
+    public InMemoryFileTree render(String projectName, ProjectOptions options) {
+        var fileTree = new InMemoryFileTree();
+        FileSystem fileSystem = new FileSystem(projectName, fileTree, getResourceHandler(options));
+        fileSystem.setVerbose(verbose);
+        fileSystem.createDirectory("data");
+        createCMakeBuilder(fileSystem, options).buildFiles();
+        return fileTree;
+    }
+
+    private void keepGeneratedFiles(StagedProject stagedProject, RuntimeException error) {
+        try {
+            stagedProject.publish();
+        } catch (RuntimeException e) {
+            error.addSuppressed(e);
+            System.out.println("Generated files are kept in: " + stagedProject.getStagingDir().getAbsolutePath());
+        }
+    }
+
+    private CMakeBuilder createCMakeBuilder(FileSystem fileSystem, ProjectOptions options) {
+        CMakeBuilder cmakeBuilder = new CMakeBuilder(fileSystem, githubLookups)
+                .withDescription(options.getDescription())
+                .withTestProject(options.isTest())
+                .withBenchmarkProject(options.isBench())
+                .withLicense(LicenseType.MIT, options.getLicenseAuthor())
+                .withPrecompiledHeader(options.isPrecompiledHeader())
+                .withUnityBuild(options.getUnityBuildBatchSize())
+                .withCompilerLauncher(options.isCompilerLauncher())
+                .withCiMatrixBuildTypes(options.isCiMatrixBuildTypes())
+                .withGenerator(options.getGenerator())
+                .withLinkTimeOptimization(options.isLinkTimeOptimization())
+                .withProfileGuidedOptimization(options.isProfileGuidedOptimization())
+                .withVcpkgBinaryCache(options.getVcpkgBinaryCache())
+                .withVcpkgDownloads(options.getVcpkgDownloads())
+                .withSharedVcpkgInstalled(options.getVcpkgSharedInstalled());
+
+        if (options.isGui()) {
+            cmakeBuilder
+                    .addLinkLibrary("CppSdl3::CppSdl3")
+                    .addSource("src/main.cpp")
+                    .addSource("src/testwindow.cpp")
+                    .addSource("src/testwindow.h")
+                    .addVcpkgDependency("cppsdl3")
+                    .addRegistry("mwthinker", "mw-vcpkg-registry", "cppsdl3");
+        } else {
+            cmakeBuilder
+                    .addSource("src/main.cpp")
+                    .addVcpkgDependency("fmt")
+                    .addLinkLibrary("fmt::fmt");
+        }
+        options.getDependencies().forEach(cmakeBuilder::addVcpkgDependency);
+        return cmakeBuilder;
+    }
+
+    private ResourceHandler getResourceHandler(ProjectOptions options) {
+        String templateDir = options.isGui() ? "gui-template" : "empty-template";
+        return resourceHandlers.computeIfAbsent(templateDir, ResourceHandler::new);
+    }
+}
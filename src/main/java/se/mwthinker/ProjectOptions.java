@@ -0,0 +1,206 @@
+package se.mwthinker;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.annotation.Nulls;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// The options of one generated project, given on the command line or as a project in a batch manifest.
+public class ProjectOptions {
+
+    @JsonProperty("name")
+    private String name;
+
+    @JsonProperty("description")
+    @JsonSetter(nulls = Nulls.SKIP)
+    private String description = "Description";
+
+    @JsonProperty("gui")
+    private boolean gui;
+
+    @JsonProperty("test")
+    private boolean test;
+
+    @JsonProperty("bench")
+    private boolean bench;
+
+    @JsonProperty("license")
+    @JsonSetter(nulls = Nulls.SKIP)
+    private String licenseAuthor = "";
+
+    @JsonProperty("dependencies")
+    @JsonSetter(nulls = Nulls.AS_EMPTY, contentNulls = Nulls.SKIP)
+    private List<String> dependencies = new ArrayList<>();
+
+    @JsonProperty("pch")
+    private boolean precompiledHeader;
+
+    // Batch size of the unity build, zero is no unity build.
+    @JsonProperty("unityBuild")
+    private int unityBuildBatchSize;
+
+    @JsonProperty("compilerLauncher")
+    private boolean compilerLauncher;
+
+    @JsonProperty("ciMatrix")
+    private boolean ciMatrixBuildTypes;
+
+    // Generator of the unix preset.
+    @JsonProperty("generator")
+    @JsonSetter(nulls = Nulls.SKIP)
+    private CMakeGenerator generator = CMakeGenerator.MAKE;
+
+    @JsonProperty("lto")
+    private boolean linkTimeOptimization;
+
+    @JsonProperty("pgo")
+    private boolean profileGuidedOptimization;
+
+    // The vcpkg directories shared between projects, null is not shared and empty is the default directory.
+    @JsonProperty("vcpkgBinaryCache")
+    private String vcpkgBinaryCache;
+
+    @JsonProperty("vcpkgDownloads")
+    private String vcpkgDownloads;
+
+    @JsonProperty("vcpkgSharedInstalled")
+    private String vcpkgSharedInstalled;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public boolean isGui() {
+        return gui;
+    }
+
+    public void setGui(boolean gui) {
+        this.gui = gui;
+    }
+
+    public boolean isTest() {
+        return test;
+    }
+
+    public void setTest(boolean test) {
+        this.test = test;
+    }
+
+    public boolean isBench() {
+        return bench;
+    }
+
+    public void setBench(boolean bench) {
+        this.bench = bench;
+    }
+
+    public String getLicenseAuthor() {
+        return licenseAuthor;
+    }
+
+    public void setLicenseAuthor(String licenseAuthor) {
+        this.licenseAuthor = licenseAuthor;
+    }
+
+    public List<String> getDependencies() {
+        return dependencies;
+    }
+
+    public void setDependencies(List<String> dependencies) {
+        this.dependencies = dependencies;
+    }
+
+    public boolean isPrecompiledHeader() {
+        return precompiledHeader;
+    }
+
+    public void setPrecompiledHeader(boolean precompiledHeader) {
+        this.precompiledHeader = precompiledHeader;
+    }
+
+    public int getUnityBuildBatchSize() {
+        return unityBuildBatchSize;
+    }
+
+    public void setUnityBuildBatchSize(int unityBuildBatchSize) {
+        this.unityBuildBatchSize = unityBuildBatchSize;
+    }
+
+    public boolean isCompilerLauncher() {
+        return compilerLauncher;
+    }
+
+    public void setCompilerLauncher(boolean compilerLauncher) {
+        this.compilerLauncher = compilerLauncher;
+    }
+
+    public boolean isCiMatrixBuildTypes() {
+        return ciMatrixBuildTypes;
+    }
+
+    public void setCiMatrixBuildTypes(boolean ciMatrixBuildTypes) {
+        this.ciMatrixBuildTypes = ciMatrixBuildTypes;
+    }
+
+    public CMakeGenerator getGenerator() {
+        return generator;
+    }
+
+    public void setGenerator(CMakeGenerator generator) {
+        this.generator = generator;
+    }
+
+    public boolean isLinkTimeOptimization() {
+        return linkTimeOptimization;
+    }
+
+    public void setLinkTimeOptimization(boolean linkTimeOptimization) {
+        this.linkTimeOptimization = linkTimeOptimization;
+    }
+
+    public boolean isProfileGuidedOptimization() {
+        return profileGuidedOptimization;
+    }
+
+    public void setProfileGuidedOptimization(boolean profileGuidedOptimization) {
+        this.profileGuidedOptimization = profileGuidedOptimization;
+    }
+
+    public String getVcpkgBinaryCache() {
+        return vcpkgBinaryCache;
+    }
+
+    public void setVcpkgBinaryCache(String vcpkgBinaryCache) {
+        this.vcpkgBinaryCache = vcpkgBinaryCache;
+    }
+
+    public String getVcpkgDownloads() {
+        return vcpkgDownloads;
+    }
+
+    public void setVcpkgDownloads(String vcpkgDownloads) {
+        this.vcpkgDownloads = vcpkgDownloads;
+    }
+
+    public String getVcpkgSharedInstalled() {
+        return vcpkgSharedInstalled;
+    }
+
+    public void setVcpkgSharedInstalled(String vcpkgSharedInstalled) {
+        this.vcpkgSharedInstalled = vcpkgSharedInstalled;
+    }
+}
@@ -0,0 +1,26 @@
+package se.mwthinker;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Flight recorder event for a bundled resource copied to the project.
+@Name("se.mwthinker.ResourceCopy")
+@Label("Resource Copy")
+@Category({ "cppgen", "Generation" })
+@Description("A bundled resource copied to a project file")
+@StackTrace(false)
+class ResourceCopyEvent extends jdk.jfr.Event {
+    @Label("Resource")
+    String resource;
+
+    @Label("File")
+    String file;
+
+    @Label("Size")
+    @DataAmount
+    long size;
+}
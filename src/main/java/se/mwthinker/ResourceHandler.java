@@ -1,43 +1,40 @@
 package se.mwthinker;
 
-import freemarker.cache.ClassTemplateLoader;
-import freemarker.template.Configuration;
 import freemarker.template.Template;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.Files;
 
 public class ResourceHandler {
     private final String templateDir;
-    private final Configuration cfg;
 
     public ResourceHandler(String templateDir) {
         this.templateDir = templateDir;
-
-        cfg = new Configuration(Configuration.VERSION_2_3_34);
-        cfg.setDefaultEncoding("UTF-8");
-        cfg.setTemplateLoader(new ClassTemplateLoader(ResourceHandler.class, "/templates/"));
     }
 
+    // Templates are shared by all template directories.
     public Template getTemplate(String templateSrc) {
-        try {
-            return cfg.getTemplate(templateSrc);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        return TemplateRegistry.getTemplate(templateSrc);
     }
 
-    public void copyResourceTo(String resource, File dest) {
-        dest.getParentFile().mkdirs();
-
-        try {
-            var inputStream = getSystemResourceInputStream(resource);
-            Files.copy(inputStream, dest.toPath());
+    public void copyResourceTo(String resource, FileTree fileTree, String destName) {
+        var event = new ResourceCopyEvent();
+        event.begin();
+        byte[] content;
+        try (var _ = Timings.span("resource", destName).arg("resource", resource);
+             var inputStream = getSystemResourceInputStream(resource)) {
+            content = inputStream.readAllBytes();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+        event.end();
+        if (event.shouldCommit()) {
+            event.resource = resource;
+            event.file = destName;
+            event.size = content.length;
+            event.commit();
+        }
+        fileTree.write(destName, content);
     }
 
     private InputStream getSystemResourceInputStream(String resource) {
@@ -0,0 +1,70 @@
+package se.mwthinker;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+// A project generated in a staging directory next to the project directory, and then published with an atomic rename.
+// Other tools never see a half-written project, and generators running in the same parent directory do not collide.
+public class StagedProject {
+    private final File projectDir;
+    private final File stagingDir;
+    private final GenerationJournal journal = new GenerationJournal();
+
+    private StagedProject(File projectDir, File stagingDir) {
+        this.projectDir = projectDir;
+        this.stagingDir = stagingDir;
+        journal.recordDirectory(stagingDir.toPath());
+    }
+
+    public static StagedProject create(File projectDir) {
+        if (projectDir.exists()) {
+            throw new RuntimeException("Failed to create project folder: " + projectDir.getAbsolutePath());
+        }
+        Path parentDir = projectDir.getAbsoluteFile().toPath().getParent();
+        while (true) {
+            // Not a temp directory, it becomes the project directory and must get the permissions of a plain mkdir.
+            Path stagingDir = parentDir.resolve("." + projectDir.getName() + ".staging-" + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()));
+            try {
+                Files.createDirectory(stagingDir);
+                return new StagedProject(projectDir, stagingDir.toFile());
+            } catch (FileAlreadyExistsException e) {
+                // Try another name.
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to create project folder: " + projectDir.getAbsolutePath(), e);
+            }
+        }
+    }
+
+    public File getStagingDir() {
+        return stagingDir;
+    }
+
+    public GenerationJournal getJournal() {
+        return journal;
+    }
+
+    public void publish() {
+        if (projectDir.exists()) {
+            throw new RuntimeException("Project folder was created by someone else: " + projectDir.getAbsolutePath());
+        }
+        try {
+            Files.move(stagingDir.toPath(), projectDir.getAbsoluteFile().toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (DirectoryNotEmptyException | FileAlreadyExistsException e) {
+            // Created after the check above.
+            throw new RuntimeException("Project folder was created by someone else: " + projectDir.getAbsolutePath(), e);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to move " + stagingDir + " to " + projectDir.getAbsolutePath(), e);
+        }
+    }
+
+    // Removes only what was created by this generation, including the staging directory.
+    public void rollback() {
+        journal.rollback();
+    }
+}
@@ -0,0 +1,78 @@
+package se.mwthinker;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+// Measures the startup phases, reported by --startup-profile. Does nothing unless enabled.
+final class StartupProfile {
+    private record Phase(String name, long startNanos, long durationNanos, long loadedClasses) {}
+
+    private static final Queue<Phase> PHASES = new ConcurrentLinkedQueue<>();
+    private static final Set<String> MEASURED_ONCE = ConcurrentHashMap.newKeySet();
+    private static volatile boolean enabled = false;
+    private static long jvmStartupMillis;
+    private static long jvmStartupClasses;
+
+    private StartupProfile() {
+    }
+
+    // Called first in main, the arguments are not parsed yet. The management classes are only loaded when enabled.
+    static void start(String[] args) {
+        enabled = Arrays.asList(args).contains("--startup-profile");
+        if (enabled) {
+            jvmStartupMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+            jvmStartupClasses = ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount();
+        }
+    }
+
+    static void measure(String name, Runnable runnable) {
+        measure(name, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    static <T> T measure(String name, Supplier<T> supplier) {
+        if (!enabled) {
+            return supplier.get();
+        }
+        var classLoading = ManagementFactory.getClassLoadingMXBean();
+        long loadedClasses = classLoading.getTotalLoadedClassCount();
+        long start = System.nanoTime();
+        try {
+            return supplier.get();
+        } finally {
+            PHASES.add(new Phase(name, start, System.nanoTime() - start, classLoading.getTotalLoadedClassCount() - loadedClasses));
+        }
+    }
+
+    // Only the first call is measured, e.g. the first network call.
+    static <T> T measureOnce(String name, Supplier<T> supplier) {
+        if (!enabled || !MEASURED_ONCE.add(name)) {
+            return supplier.get();
+        }
+        return measure(name, supplier);
+    }
+
+    static void print(PrintStream out) {
+        if (!enabled) {
+            return;
+        }
+        out.println("Startup profile:");
+        out.printf("  %-28s %9s %9s%n", "Phase", "Time (ms)", "Classes");
+        out.printf("  %-28s %9d %9d%n", "jvm startup (until main)", jvmStartupMillis, jvmStartupClasses);
+        PHASES.stream()
+                .sorted(Comparator.comparingLong(Phase::startNanos))
+                .forEach(phase -> out.printf("  %-28s %9.1f %9d%n", phase.name(), phase.durationNanos() / 1e6, phase.loadedClasses()));
+        out.printf("  %-28s %9d %9d%n", "total", ManagementFactory.getRuntimeMXBean().getUptime(),
+                ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount());
+        out.println("  Classes are the number of classes loaded during the phase, phases may run in parallel.");
+    }
+}
@@ -0,0 +1,76 @@
+package se.mwthinker;
+
+import freemarker.cache.ClassTemplateLoader;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Process wide FreeMarker configuration. Every template is parsed once and then shared by all
+// ResourceHandler instances, parsed templates are thread-safe to process.
+public final class TemplateRegistry {
+    static final List<String> BUNDLED_TEMPLATES = List.of(
+            "Bench_CMakeLists.ftl",
+            "CMakeLists.ftl",
+            "CMakePresets.ftl",
+            "ExternalFetchContent.ftl",
+            "LICENSE.ftl",
+            "Test_CMakeLists.ftl",
+            "ci.ftl",
+            "pch.ftl"
+    );
+
+    private static final Configuration CONFIGURATION = StartupProfile.measure("template setup", TemplateRegistry::createConfiguration);
+    private static final Map<String, Template> TEMPLATES = new ConcurrentHashMap<>();
+
+    private TemplateRegistry() {
+    }
+
+    public static Template getTemplate(String templateSrc) {
+        try {
+            return TEMPLATES.computeIfAbsent(templateSrc, TemplateRegistry::parseTemplate);
+        } catch (UncheckedIOException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    // Parses all bundled templates.
+    public static void warmUp() {
+        StartupProfile.measure("template parsing", () -> BUNDLED_TEMPLATES.forEach(TemplateRegistry::getTemplate));
+    }
+
+    // Parses all bundled templates on a background thread, while e.g. waiting for Github.
+    public static void warmUpInBackground() {
+        Thread.ofVirtual()
+                .name("template-warm-up")
+                .start(() -> {
+                    try {
+                        warmUp();
+                    } catch (RuntimeException e) {
+                        // Reported again when the template is used.
+                    }
+                });
+    }
+
+    private static Template parseTemplate(String templateSrc) {
+        try {
+            return CONFIGURATION.getTemplate(templateSrc);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Configuration createConfiguration() {
+        var cfg = new Configuration(Configuration.VERSION_2_3_34);
+        cfg.setDefaultEncoding("UTF-8");
+        cfg.setTemplateLoader(new ClassTemplateLoader(TemplateRegistry.class, "/templates/"));
+        // Bundled templates never change and are not localized, avoid looking for e.g. CMakeLists_en_US.ftl.
+        cfg.setLocalizedLookup(false);
+        cfg.setTemplateUpdateDelayMilliseconds(Long.MAX_VALUE);
+        return cfg;
+    }
+}
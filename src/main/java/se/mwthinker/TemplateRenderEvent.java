@@ -0,0 +1,26 @@
+package se.mwthinker;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Flight recorder event for a rendered FreeMarker template.
+@Name("se.mwthinker.TemplateRender")
+@Label("Template Render")
+@Category({ "cppgen", "Generation" })
+@Description("A FreeMarker template rendered to a project file")
+@StackTrace(false)
+class TemplateRenderEvent extends jdk.jfr.Event {
+    @Label("Template")
+    String template;
+
+    @Label("File")
+    String file;
+
+    @Label("Output Size")
+    @DataAmount
+    long size;
+}
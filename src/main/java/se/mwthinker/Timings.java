@@ -0,0 +1,155 @@
+package se.mwthinker;
+
+import com.fasterxml.jackson.core.util.DefaultIndenter;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+// Records spans of the generation phases, shown by --timings as a Chrome trace-event file (chrome://tracing or
+// ui.perfetto.dev) and a summary. Spans are recorded by the thread that started the timings and the threads it starts,
+// so the requests in the daemon are recorded separately. Without timings a span is a thread local lookup.
+final class Timings {
+    private static final InheritableThreadLocal<Timings> CURRENT = new InheritableThreadLocal<>();
+    private static final Span NO_SPAN = new Span(null, null, null);
+
+    private record Event(String category, String name, long startNanos, long durationNanos, long threadId, String threadName, Map<String, Object> args) {}
+
+    private final long startNanos;
+    private final Queue<Event> events = new ConcurrentLinkedQueue<>();
+
+    // Closing the span records it.
+    static class Span implements AutoCloseable {
+        private final Timings timings;
+        private final String category;
+        private final String name;
+        private final long startNanos = System.nanoTime();
+        private Map<String, Object> args;
+
+        private Span(Timings timings, String category, String name) {
+            this.timings = timings;
+            this.category = category;
+            this.name = name;
+        }
+
+        Span arg(String key, Object value) {
+            if (timings != null) {
+                if (args == null) {
+                    args = new LinkedHashMap<>();
+                }
+                args.put(key, value);
+            }
+            return this;
+        }
+
+        @Override
+        public void close() {
+            if (timings != null) {
+                timings.add(category, name, startNanos, System.nanoTime() - startNanos, args);
+            }
+        }
+    }
+
+    private Timings(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    // Records the spans of the current thread, and the threads started by it, until stopped.
+    // The start time is the beginning of the trace, e.g. before the arguments were parsed.
+    static Timings start(long startNanos) {
+        var timings = new Timings(startNanos);
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    static void stop() {
+        CURRENT.remove();
+    }
+
+    static Span span(String category, String name) {
+        var timings = CURRENT.get();
+        return timings == null ? NO_SPAN : new Span(timings, category, name);
+    }
+
+    // For a span measured before the timings were started, e.g. the argument parsing.
+    void add(String category, String name, long startNanos, long durationNanos, Map<String, Object> args) {
+        var thread = Thread.currentThread();
+        events.add(new Event(category, name, startNanos, durationNanos, thread.threadId(), thread.getName(), args));
+    }
+
+    void writeTrace(File file) {
+        List<Map<String, Object>> traceEvents = new ArrayList<>();
+        Map<Long, String> threadNames = new LinkedHashMap<>();
+        for (var event : getEvents()) {
+            threadNames.putIfAbsent(event.threadId(), event.threadName().isEmpty() ? "virtual-" + event.threadId() : event.threadName());
+            Map<String, Object> traceEvent = new LinkedHashMap<>();
+            traceEvent.put("name", event.name());
+            traceEvent.put("cat", event.category());
+            traceEvent.put("ph", "X");
+            traceEvent.put("ts", (event.startNanos() - startNanos) / 1000.0);
+            traceEvent.put("dur", event.durationNanos() / 1000.0);
+            traceEvent.put("pid", ProcessHandle.current().pid());
+            traceEvent.put("tid", event.threadId());
+            if (event.args() != null) {
+                traceEvent.put("args", event.args());
+            }
+            traceEvents.add(traceEvent);
+        }
+        threadNames.forEach((threadId, threadName) -> traceEvents.add(Map.of(
+                "name", "thread_name",
+                "ph", "M",
+                "pid", ProcessHandle.current().pid(),
+                "tid", threadId,
+                "args", Map.of("name", threadName))));
+
+        try {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null) {
+                parent.mkdirs();
+            }
+            new ObjectMapper()
+                    .writer(new DefaultPrettyPrinter().withObjectIndenter(new DefaultIndenter().withLinefeed("\n")))
+                    .writeValue(file, Map.of("displayTimeUnit", "ms", "traceEvents", traceEvents));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write timings to " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    // The time per category, spans in different threads overlap so the sum may exceed the total.
+    void printSummary(PrintStream out) {
+        record Category(String name, int count, long totalNanos, long maxNanos) {}
+
+        var categories = getEvents().stream()
+                .collect(Collectors.groupingBy(Event::category, LinkedHashMap::new, Collectors.toList()))
+                .entrySet().stream()
+                .map(entry -> new Category(entry.getKey(),
+                        entry.getValue().size(),
+                        entry.getValue().stream().mapToLong(Event::durationNanos).sum(),
+                        entry.getValue().stream().mapToLong(Event::durationNanos).max().orElse(0)))
+                .sorted(Comparator.comparingLong(Category::totalNanos).reversed())
+                .toList();
+
+        out.println("Timings:");
+        out.printf("  %-12s %6s %10s %10s%n", "Category", "Spans", "Total (ms)", "Max (ms)");
+        for (var category : categories) {
+            out.printf("  %-12s %6d %10.1f %10.1f%n", category.name(), category.count(), category.totalNanos() / 1e6, category.maxNanos() / 1e6);
+        }
+        out.printf("  %-12s %6s %10.1f%n", "total", "", (System.nanoTime() - startNanos) / 1e6);
+    }
+
+    private List<Event> getEvents() {
+        return events.stream()
+                .sorted(Comparator.comparingLong(Event::startNanos))
+                .toList();
+    }
+}
@@ -0,0 +1,133 @@
+package se.mwthinker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Creates a unified diff (as "diff -u") of two texts using the longest common subsequence of lines.
+final class UnifiedDiff {
+    private static final int CONTEXT = 3;
+
+    private enum Type { EQUAL, DELETE, INSERT }
+
+    private record Edit(Type type, String line) {}
+
+    private UnifiedDiff() {
+    }
+
+    // Returns an empty string if the texts are equal.
+    static String diff(String fromFile, String toFile, String from, String to) {
+        List<Edit> edits = computeEdits(from.lines().toList(), to.lines().toList());
+        if (edits.stream().allMatch(edit -> edit.type() == Type.EQUAL)) {
+            return "";
+        }
+
+        var diff = new StringBuilder()
+                .append("--- ").append(fromFile).append('\n')
+                .append("+++ ").append(toFile).append('\n');
+
+        int index = 0;
+        while (index < edits.size()) {
+            int change = nextChange(edits, index);
+            if (change < 0) {
+                break;
+            }
+            int start = Math.max(index, change - CONTEXT);
+            int end = getLastChangeInHunk(edits, change);
+            int hunkEnd = Math.min(edits.size(), end + 1 + CONTEXT);
+            appendHunk(diff, edits, start, hunkEnd);
+            index = hunkEnd;
+        }
+        return diff.toString();
+    }
+
+    private static List<Edit> computeEdits(List<String> from, List<String> to) {
+        int n = from.size();
+        int m = to.size();
+        int[][] lcs = new int[n + 1][m + 1];
+        for (int i = n - 1; i >= 0; --i) {
+            for (int j = m - 1; j >= 0; --j) {
+                lcs[i][j] = from.get(i).equals(to.get(j))
+                        ? lcs[i + 1][j + 1] + 1
+                        : Math.max(lcs[i + 1][j], lcs[i][j + 1]);
+            }
+        }
+
+        List<Edit> edits = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < n && j < m) {
+            if (from.get(i).equals(to.get(j))) {
+                edits.add(new Edit(Type.EQUAL, from.get(i++)));
+                ++j;
+            } else if (lcs[i + 1][j] >= lcs[i][j + 1]) {
+                edits.add(new Edit(Type.DELETE, from.get(i++)));
+            } else {
+                edits.add(new Edit(Type.INSERT, to.get(j++)));
+            }
+        }
+        while (i < n) {
+            edits.add(new Edit(Type.DELETE, from.get(i++)));
+        }
+        while (j < m) {
+            edits.add(new Edit(Type.INSERT, to.get(j++)));
+        }
+        return edits;
+    }
+
+    private static int nextChange(List<Edit> edits, int index) {
+        for (int i = index; i < edits.size(); ++i) {
+            if (edits.get(i).type() != Type.EQUAL) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Changes separated by at most two contexts of equal lines are put in the same hunk.
+    private static int getLastChangeInHunk(List<Edit> edits, int change) {
+        int last = change;
+        int equalLines = 0;
+        for (int i = change; i < edits.size(); ++i) {
+            if (edits.get(i).type() == Type.EQUAL) {
+                if (++equalLines > 2 * CONTEXT) {
+                    break;
+                }
+            } else {
+                equalLines = 0;
+                last = i;
+            }
+        }
+        return last;
+    }
+
+    private static void appendHunk(StringBuilder diff, List<Edit> edits, int start, int end) {
+        int fromLine = countLines(edits, 0, start, Type.INSERT);
+        int toLine = countLines(edits, 0, start, Type.DELETE);
+        int fromLength = countLines(edits, start, end, Type.INSERT);
+        int toLength = countLines(edits, start, end, Type.DELETE);
+
+        diff.append("@@ -").append(fromLength == 0 ? fromLine : fromLine + 1).append(',').append(fromLength)
+                .append(" +").append(toLength == 0 ? toLine : toLine + 1).append(',').append(toLength)
+                .append(" @@\n");
+        for (int i = start; i < end; ++i) {
+            var edit = edits.get(i);
+            char prefix = switch (edit.type()) {
+                case EQUAL -> ' ';
+                case DELETE -> '-';
+                case INSERT -> '+';
+            };
+            diff.append(prefix).append(edit.line()).append('\n');
+        }
+    }
+
+    // Counts the lines in [start, end) that are not of the excluded type.
+    private static int countLines(List<Edit> edits, int start, int end, Type excluded) {
+        int count = 0;
+        for (int i = start; i < end; ++i) {
+            if (edits.get(i).type() != excluded) {
+                ++count;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,106 @@
+package se.mwthinker;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Writes to an existing project, but only the files whose content differ, so unchanged files keep their
+// modification time and don't trigger a CMake reconfigure or vcpkg reinstall.
+// Files changed by the user since they were generated are kept, unless overwrite is set.
+public class UpdatingFileTree implements FileTree {
+
+    public enum Status { UNCHANGED, CREATED, UPDATED, KEPT }
+
+    private final File projectDir;
+    private final GeneratedFilesManifest previousManifest;
+    private final GeneratedFilesManifest manifest = new GeneratedFilesManifest();
+    private final boolean overwrite;
+    private final Map<String, Status> statuses = new ConcurrentSkipListMap<>();
+
+    public UpdatingFileTree(File projectDir, GeneratedFilesManifest previousManifest, boolean overwrite) {
+        this.projectDir = projectDir;
+        this.previousManifest = previousManifest;
+        this.overwrite = overwrite;
+    }
+
+    @Override
+    public void createDirectory(String path) {
+        try {
+            Files.createDirectories(new File(projectDir, path).toPath());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void write(String path, byte[] content) {
+        Path file = new File(projectDir, path).toPath();
+        try (var _ = Timings.span("disk", path).arg("bytes", content.length)) {
+            if (!Files.exists(file)) {
+                Files.createDirectories(file.getParent());
+                replace(file, content);
+                setStatus(path, Status.CREATED, content);
+                return;
+            }
+
+            byte[] existing = Files.readAllBytes(file);
+            if (Arrays.equals(existing, content)) {
+                setStatus(path, Status.UNCHANGED, content);
+            } else if (overwrite || GeneratedFilesManifest.PATH.equals(path)
+                    || GeneratedFilesManifest.hash(existing).equals(previousManifest.getHash(path))) {
+                // The manifest has no hash of itself and is always written, a stale manifest would make
+                // the files updated now look modified by the user on the next update.
+                replace(file, content);
+                setStatus(path, Status.UPDATED, content);
+            } else {
+                statuses.put(path, Status.KEPT);
+                // Still seen as changed by the user by the next update.
+                String previousHash = previousManifest.getHash(path);
+                if (previousHash != null) {
+                    manifest.put(path, previousHash);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public GeneratedFilesManifest getManifest() {
+        return manifest;
+    }
+
+    public Map<String, Status> getStatuses() {
+        return statuses;
+    }
+
+    private void setStatus(String path, Status status, byte[] content) {
+        statuses.put(path, status);
+        if (!GeneratedFilesManifest.PATH.equals(path)) {
+            manifest.put(path, GeneratedFilesManifest.hash(content));
+        }
+    }
+
+    // Written to a temporary file first, so no one reads a half-written file. Not created with Files.createTempFile,
+    // which is only readable by the owner. A new file gets the umask default and a replaced file keeps its permissions.
+    private static void replace(Path file, byte[] content) throws IOException {
+        Path tmpFile = file.resolveSibling("." + file.getFileName() + "." + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+        try {
+            Files.write(tmpFile, content, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            var existingView = Files.getFileAttributeView(file, PosixFileAttributeView.class);
+            if (existingView != null && Files.exists(file)) {
+                Files.setPosixFilePermissions(tmpFile, existingView.readAttributes().permissions());
+            }
+            Files.move(tmpFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+}
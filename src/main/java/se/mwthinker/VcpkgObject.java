@@ -1,6 +1,7 @@
 package se.mwthinker;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
@@ -29,6 +30,11 @@ public class VcpkgObject {
     @JsonProperty("dependencies")
     private final List<String> dependencies = new ArrayList<>();
 
+    // External projects this project depends on, as "owner/repo". Only used by cppgen, vcpkg ignores fields starting with $.
+    @JsonProperty("$external-projects")
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private final List<String> externalProjects = new ArrayList<>();
+
     public String getName() {
         return name;
     }
@@ -81,4 +87,12 @@ public class VcpkgObject {
         this.dependencies.addAll(dependencies);
     }
 
+    public List<String> getExternalProjects() {
+        return externalProjects;
+    }
+
+    public void addExternalProject(String externalProject) {
+        externalProjects.add(externalProject);
+    }
+
 }
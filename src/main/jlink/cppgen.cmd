@@ -0,0 +1,5 @@
+@echo off
+rem Starts cppgen with the bundled java runtime and the class data sharing archive recorded at build time.
+rem If the archive does not match (e.g. another java runtime), it is recreated on exit.
+set "DIR=%~dp0.."
+"%DIR%\bin\java.exe" -XX:SharedArchiveFile="%DIR%\app\cppgen.jsa" -XX:+AutoCreateSharedArchive -Xshare:auto -Xmx1G --enable-native-access=ALL-UNNAMED -jar "%DIR%\app\cppgen.jar" %*
@@ -0,0 +1,29 @@
+#include <benchmark/benchmark.h>
+
+#include <numeric>
+#include <vector>
+
+static void BM_VectorPushBack(benchmark::State& state) {
+	for (auto _ : state) {
+		std::vector<int> values;
+		for (int i = 0; i < state.range(0); ++i) {
+			values.push_back(i);
+		}
+		benchmark::DoNotOptimize(values.data());
+		benchmark::ClobberMemory();
+	}
+	state.SetItemsProcessed(state.iterations() * state.range(0));
+}
+BENCHMARK(BM_VectorPushBack)->Range(8, 8 << 10);
+
+static void BM_VectorSum(benchmark::State& state) {
+	std::vector<int> values(state.range(0));
+	std::iota(values.begin(), values.end(), 0);
+
+	for (auto _ : state) {
+		long long sum = std::accumulate(values.begin(), values.end(), 0LL);
+		benchmark::DoNotOptimize(sum);
+	}
+	state.SetItemsProcessed(state.iterations() * state.range(0));
+}
+BENCHMARK(BM_VectorSum)->Range(8, 8 << 10);
@@ -0,0 +1,54 @@
+project(${projectName}
+	DESCRIPTION
+		"Benchmark project using Google Benchmark"
+	LANGUAGES
+		CXX
+)
+
+find_package(benchmark CONFIG REQUIRED)
+
+add_executable(${projectName}
+    src/benchmarks.cpp
+    <#if extraFiles?has_content>
+    ${'\n'}
+        <#list extraFiles as extraFile>
+    ${extraFile}
+        </#list>
+    </#if>
+)
+
+target_link_libraries(${projectName}
+    PRIVATE
+        benchmark::benchmark benchmark::benchmark_main
+)
+
+if (MSVC)
+    target_compile_options(${projectName}
+        PRIVATE
+            "/permissive-"
+    )
+endif ()
+
+set_target_properties(${projectName}
+    PROPERTIES
+        CXX_STANDARD 20
+        CXX_STANDARD_REQUIRED YES
+        CXX_EXTENSIONS NO
+<#if (unityBuildBatchSize!0) gt 0>
+        UNITY_BUILD ON
+        UNITY_BUILD_BATCH_SIZE ${unityBuildBatchSize?c}
+</#if>
+)
+<#if precompiledHeader!false>
+
+target_precompile_headers(${projectName}
+    PRIVATE
+        src/pch.h
+)
+</#if>
+
+# Runs the benchmarks and writes the result to ${projectName}.json in the build directory, e.g. to compare runs.
+add_custom_target(${projectName}_Run
+    COMMAND ${projectName} --benchmark_out=${r"${CMAKE_CURRENT_BINARY_DIR}"}/${projectName}.json --benchmark_out_format=json
+    USES_TERMINAL
+)
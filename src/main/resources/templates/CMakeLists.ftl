@@ -1,4 +1,14 @@
 cmake_minimum_required(VERSION 3.24)
+<#if createVcpkgDirectories!false>
+
+# The shared vcpkg directories set in CMakePresets.json must exist before vcpkg runs in project().
+foreach (VcpkgDirectory IN ITEMS "$ENV{VCPKG_DEFAULT_BINARY_CACHE}" "$ENV{VCPKG_DOWNLOADS}")
+	if (VcpkgDirectory)
+		file(MAKE_DIRECTORY "${r"${VcpkgDirectory}"}")
+	endif ()
+endforeach ()
+
+</#if>
 project(${projectName}
 	<#if description?has_content>
 	DESCRIPTION
@@ -10,6 +20,16 @@ project(${projectName}
 		CXX
 )
 
+<#if compilerLauncher!false>
+# Use sccache or ccache if installed, unless a compiler launcher is already set. Applies to every target.
+if (NOT CMAKE_CXX_COMPILER_LAUNCHER)
+	find_program(CompilerLauncher NAMES sccache ccache)
+	if (CompilerLauncher)
+		set(CMAKE_CXX_COMPILER_LAUNCHER ${r"${CompilerLauncher}"})
+	endif ()
+endif ()
+
+</#if>
 # Copy data to build folder.
 file(COPY data/. DESTINATION ${r"${CMAKE_CURRENT_BINARY_DIR}"})
 
@@ -50,8 +70,16 @@ foreach(Dependency IN LISTS ExternalDependencies)
 endforeach()
 </#if>
 <#if testProjectName?has_content>
+# Lets ctest run the tests from the build directory, as done by the test presets.
+enable_testing()
 add_subdirectory(${testProjectName})
 </#if>
+<#if benchProjectName?has_content>
+option(${projectName}_Bench "Build the benchmarks" ON)
+if (${projectName}_Bench)
+	add_subdirectory(${benchProjectName})
+endif ()
+</#if>
 
 <#list vcpkgDependencies as dependency>
 find_package(${dependency} CONFIG REQUIRED)
@@ -91,4 +119,15 @@ set_target_properties(${projectName}
 		CXX_STANDARD 23
 		CXX_STANDARD_REQUIRED YES
 		CXX_EXTENSIONS NO
+<#if (unityBuildBatchSize!0) gt 0>
+		UNITY_BUILD ON
+		UNITY_BUILD_BATCH_SIZE ${unityBuildBatchSize?c}
+</#if>
+)
+<#if precompiledHeader!false>
+
+target_precompile_headers(${projectName}
+	PRIVATE
+		src/pch.h
 )
+</#if>
@@ -0,0 +1,175 @@
+<#macro vcpkgCachePreset name cache>
+        {
+            "name": "${name}",
+            "hidden": true,
+            <#if cache.binaryCache()?? || cache.downloads()??>
+            "environment": {
+                <#if cache.binaryCache()??>
+                "VCPKG_DEFAULT_BINARY_CACHE": "${cache.binaryCache()?json_string}",
+                "VCPKG_BINARY_SOURCES": "clear;default,readwrite"<#if cache.downloads()??>,</#if>
+                </#if>
+                <#if cache.downloads()??>
+                "VCPKG_DOWNLOADS": "${cache.downloads()?json_string}"
+                </#if>
+            }<#if cache.installedDir()??>,</#if>
+            </#if>
+            <#if cache.installedDir()??>
+            "cacheVariables": {
+                "VCPKG_INSTALLED_DIR": {
+                    "value": "${cache.installedDir()?json_string}",
+                    "type": "PATH"
+                }
+            }
+            </#if>
+        },
+</#macro>
+{
+    "version": 5,
+    "cmakeMinimumRequired": {
+        "major": 3,
+        "minor": 24,
+        "patch": 0
+    },
+    "configurePresets": [
+        {
+            "name": "vcpkg",
+            "hidden": true,
+            "cacheVariables": {
+                "CMAKE_TOOLCHAIN_FILE": {
+                    "value": "$env{VCPKG_ROOT}/scripts/buildsystems/vcpkg.cmake",
+                    "type": "FILEPATH"
+                }
+            }
+        },
+<#if windowsVcpkgCache??>
+<@vcpkgCachePreset name="vcpkg-cache-windows" cache=windowsVcpkgCache/>
+</#if>
+<#if unixVcpkgCache??>
+<@vcpkgCachePreset name="vcpkg-cache-unix" cache=unixVcpkgCache/>
+</#if>
+        {
+            "name": "windows",
+            "generator": "Visual Studio 17 2022",
+            "binaryDir": "${r"${sourceDir}/build/${presetName}"}",
+            <#if windowsVcpkgCache??>
+            "inherits": ["vcpkg", "vcpkg-cache-windows"],
+            <#else>
+            "inherits": "vcpkg",
+            </#if>
+            "vendor": {
+                    "microsoft.com/VisualStudioSettings/CMake/1.0": {
+                    "hostOS": "Windows"
+                }
+            },
+            "architecture":{
+                "value": "x64",
+                "strategy": "set"
+            },
+            "condition": {
+                "type": "equals",
+                "lhs": "${r"${hostSystemName}"}",
+                "rhs": "Windows"
+            }
+        },
+<#if linkTimeOptimization>
+        {
+            "name": "windows-release",
+            "inherits": "windows",
+            "cacheVariables": {
+                "CMAKE_INTERPROCEDURAL_OPTIMIZATION": "ON"
+            }
+        },
+</#if>
+<#if hasBenchmarks!false>
+        {
+            "name": "windows-bench",
+            "inherits": "windows"
+        },
+</#if>
+        {
+            "name": "unix",
+            "generator": "${unixGenerator}",
+            "binaryDir": "${r"${sourceDir}/build/${presetName}"}",
+            <#if unixVcpkgCache??>
+            "inherits": ["vcpkg", "vcpkg-cache-unix"],
+            <#else>
+            "inherits": "vcpkg",
+            </#if>
+            <#if !unixMultiConfig>
+            "cacheVariables": {
+                "CMAKE_BUILD_TYPE": "Debug"
+            },
+            </#if>
+            "condition": {
+                "type": "inList",
+                "string": "${r"${hostSystemName}"}",
+                "list": ["Linux", "Darwin"]
+            }
+        }<#if linkTimeOptimization>,
+        {
+            "name": "unix-release",
+            "inherits": "unix",
+            "cacheVariables": {
+                <#if !unixMultiConfig>
+                "CMAKE_BUILD_TYPE": "Release",
+                </#if>
+                "CMAKE_INTERPROCEDURAL_OPTIMIZATION": "ON"
+            }
+        }</#if><#if hasBenchmarks!false>,
+        {
+            "name": "unix-bench",
+            "inherits": "unix"<#if !unixMultiConfig>,
+            "cacheVariables": {
+                "CMAKE_BUILD_TYPE": "Release"
+            }</#if>
+        }</#if><#if profileGuidedOptimization>,
+        {
+            "name": "unix-pgo-generate",
+            "inherits": "unix",
+            "binaryDir": "${r"${sourceDir}/build/unix-pgo"}",
+            "cacheVariables": {
+                <#if !unixMultiConfig>
+                "CMAKE_BUILD_TYPE": "Release",
+                </#if>
+                "CMAKE_CXX_FLAGS": "-fprofile-generate=${r"${sourceDir}/build/pgo-profile"}",
+                "CMAKE_EXE_LINKER_FLAGS": "-fprofile-generate=${r"${sourceDir}/build/pgo-profile"}"
+            }
+        },
+        {
+            "name": "unix-pgo-use",
+            "inherits": "unix",
+            "binaryDir": "${r"${sourceDir}/build/unix-pgo"}",
+            "cacheVariables": {
+                <#if !unixMultiConfig>
+                "CMAKE_BUILD_TYPE": "Release",
+                </#if>
+                "CMAKE_CXX_FLAGS": "-fprofile-use=${r"${sourceDir}/build/pgo-profile"}",
+                "CMAKE_EXE_LINKER_FLAGS": "-fprofile-use=${r"${sourceDir}/build/pgo-profile"}"
+            }
+        }</#if>
+    ],
+    "buildPresets": [
+        <#list buildPresets as preset>
+        {
+            "name": "${preset.name()}",
+            "configurePreset": "${preset.name()}",
+            <#if preset.target()??>
+            "targets": ["${preset.target()}"],
+            </#if>
+            "configuration": "${preset.configuration()}"
+        }<#sep>,</#sep>
+        </#list>
+    ]<#if testPresets?has_content>,
+    "testPresets": [
+        <#list testPresets as preset>
+        {
+            "name": "${preset.name()}",
+            "configurePreset": "${preset.name()}",
+            "configuration": "${preset.configuration()}",
+            "output": {
+                "outputOnFailure": true
+            }
+        }<#sep>,</#sep>
+        </#list>
+    ]</#if>
+}
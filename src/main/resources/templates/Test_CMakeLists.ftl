@@ -35,7 +35,18 @@ set_target_properties(${projectName}
         CXX_STANDARD 20
         CXX_STANDARD_REQUIRED YES
         CXX_EXTENSIONS NO
+<#if (unityBuildBatchSize!0) gt 0>
+        UNITY_BUILD ON
+        UNITY_BUILD_BATCH_SIZE ${unityBuildBatchSize?c}
+</#if>
 )
+<#if precompiledHeader!false>
+
+target_precompile_headers(${projectName}
+    PRIVATE
+        src/pch.h
+)
+</#if>
 
 include(GoogleTest)
 gtest_discover_tests(${projectName})
@@ -1,18 +1,73 @@
+<#macro buildSteps label buildType buildDir runBenchmarks>
+      - name: Run CMake ${label}
+        shell: bash
+        run: cmake --preset=${r"${{ matrix.preset }}"} -B ${buildDir} -D${projectName}_Test=1 -DCMAKE_BUILD_TYPE=${buildType} ${r"${{ matrix.cmake_args }}"}
+
+      - name: Compile binaries ${label}
+        shell: bash
+        run: cmake --build ${buildDir} --config ${buildType} --parallel 4
+
+<#if hasTests>
+      - name: Run tests ${label}
+        shell: bash
+        run: ctest --rerun-failed --output-on-failure --test-dir ${buildDir}/${projectName}_Test -C ${buildType}
+
+</#if>
+<#if (hasBenchmarks!false) && runBenchmarks>
+      # Only the Release build is benchmarked. The JSON output is kept as an artifact to track regressions between runs.
+      - name: Run benchmarks ${label}
+        shell: bash
+        run: cmake --build ${buildDir} --config ${buildType} --target ${projectName}_Bench_Run
+<#if matrixBuildTypes!false>
+        if: matrix.build_type == 'Release'
+</#if>
+
+      - name: Upload benchmark results ${label}
+        uses: actions/upload-artifact@v4
+        with:
+          name: ${r"benchmark-${{ matrix.os }}"}
+          path: ${buildDir}/${projectName}_Bench/${projectName}_Bench.json
+<#if matrixBuildTypes!false>
+        if: matrix.build_type == 'Release'
+</#if>
+
+</#if>
+</#macro>
 name: CI
 on: [push, workflow_dispatch]
 
 jobs:
   job:
-    name: ${r"${{ matrix.os }}-${{ github.workflow }}"})
-    runs-on: ${r"${{ matrix.os }}"})
+<#if matrixBuildTypes!false>
+    name: ${r"${{ matrix.os }}-${{ matrix.build_type }}-${{ github.workflow }}"}
+<#else>
+    name: ${r"${{ matrix.os }}-${{ github.workflow }}"}
+</#if>
+    runs-on: ${r"${{ matrix.os }}"}
     strategy:
       fail-fast: false
       matrix:
+        os: [windows-latest, ubuntu-latest]
+<#if matrixBuildTypes!false>
+        build_type: [Debug, Release]
+</#if>
         include:
+          # The Visual Studio generator ignores compiler launchers, ccache is only used on the unix preset.
           - os: windows-latest
             preset: 'windows'
+            compiler: 'msvc'
+            vcpkg_cache: '~/AppData/Local/vcpkg/archives'
+            cmake_args: ''
           - os: ubuntu-latest
             preset: 'unix'
+            compiler: 'gcc'
+            vcpkg_cache: '~/.cache/vcpkg/archives'
+            cmake_args: '-DCMAKE_CXX_COMPILER_LAUNCHER=ccache'
+<#if precompiledHeader!false>
+    env:
+      # Lets ccache cache the sources compiled with the precompiled header.
+      CCACHE_SLOPPINESS: pch_defines,time_macros,include_file_mtime,include_file_ctime
+</#if>
 
     steps:
       - name: Check out repository code
@@ -27,33 +82,27 @@ jobs:
         shell: bash
         run: echo VCPKG_ROOT="$VCPKG_INSTALLATION_ROOT" >> "$GITHUB_ENV"; cat "$GITHUB_ENV"
 
+      # vcpkg stores the built packages in its default binary cache, which is kept between runs.
+      - name: Cache vcpkg packages
+        uses: actions/cache@v4
+        with:
+          path: ${r"${{ matrix.vcpkg_cache }}"}
+          key: ${r"vcpkg-${{ matrix.os }}-${{ hashFiles('vcpkg.json', 'vcpkg-configuration.json') }}"}
+          restore-keys: ${r"vcpkg-${{ matrix.os }}-"}
 
-      - name: Run CMake DEBUG
-        shell: bash
-        run: cmake --preset=${r"${{ matrix.preset }}"}) -B build_debug -D${projectName}_Test=1 -DCMAKE_BUILD_TYPE=Debug -DCMAKE_VERBOSE_MAKEFILE=1
-
-      - name: Compile binaries DEBUG
-        shell: bash
-        run: cmake --build build_debug
-
-<#if hasTests>
-      - name: Run tests DEBUG
-        shell: bash
-        run: ctest --rerun-failed --output-on-failure --test-dir build_debug/${projectName}_Test
-
+      - name: Cache compiled objects
+        uses: hendrikmuhs/ccache-action@v1.2
+        with:
+<#if matrixBuildTypes!false>
+          key: ${r"${{ matrix.os }}-${{ matrix.compiler }}-${{ matrix.preset }}-${{ matrix.build_type }}"}
+<#else>
+          key: ${r"${{ matrix.os }}-${{ matrix.compiler }}-${{ matrix.preset }}"}
 </#if>
+        if: runner.os != 'Windows'
 
-      - name: Run CMake RELEASE
-        shell: bash
-        run: cmake --preset=${r"${{ matrix.preset }}"}) -B build_release -D${projectName}_Test=1 -DCMAKE_BUILD_TYPE=Release -DCMAKE_VERBOSE_MAKEFILE=1
-
-      - name: Compile binaries RELEASE
-        shell: bash
-        run: cmake --build build_release
-
-<#if hasTests>
-      - name: Run tests RELEASE
-        shell: bash
-        run: ctest --rerun-failed --output-on-failure --test-dir build_release/${projectName}_Test
-
-</#if>
\ No newline at end of file
+<#if matrixBuildTypes!false>
+<@buildSteps label=r"${{ matrix.build_type }}" buildType=r"${{ matrix.build_type }}" buildDir="build" runBenchmarks=true/>
+<#else>
+<@buildSteps label="DEBUG" buildType="Debug" buildDir="build_debug" runBenchmarks=false/>
+<@buildSteps label="RELEASE" buildType="Release" buildDir="build_release" runBenchmarks=true/>
+</#if>
@@ -0,0 +1,7 @@
+// Precompiled header, generated by cppgen. Only add headers that rarely change,
+// every source file is rebuilt when this file changes.
+#pragma once
+
+<#list headers as header>
+#include <${header}>
+</#list>
@@ -0,0 +1,46 @@
+package se.mwthinker;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Base64DeserializerTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    void decodeLineWrappedContent() throws Exception {
+        // Given
+        String vcpkgJson = "{\"name\":\"cppsdl3\",\"dependencies\":[\"sdl3\",\"fmt\",\"spdlog\",\"glm\",\"imgui\",\"nlohmann-json\"]}";
+        // Github wraps the base64 content at 60 characters.
+        String content = Base64.getMimeEncoder(60, "\n".getBytes(StandardCharsets.UTF_8))
+                .encodeToString(vcpkgJson.getBytes(StandardCharsets.UTF_8)) + "\n";
+        byte[] response = MAPPER.writeValueAsBytes(Map.of("name", "vcpkg.json", "content", content));
+
+        // When
+        RepoFileContent fileContent = MAPPER.readValue(response, RepoFileContent.class);
+
+        // Then
+        assertThat(fileContent.getName()).isEqualTo("vcpkg.json");
+        assertThat(fileContent.getVcpkgObject().getName()).isEqualTo("cppsdl3");
+        assertThat(fileContent.getVcpkgObject().getDependencies()).hasSize(6);
+    }
+
+    @Test
+    void failOnContentNotBeingBase64EncodedJson() throws Exception {
+        // Given
+        String content = Base64.getEncoder().encodeToString("not json".getBytes(StandardCharsets.UTF_8));
+        byte[] response = MAPPER.writeValueAsBytes(Map.of("name", "vcpkg.json", "content", content));
+
+        // When/Then
+        assertThatThrownBy(() -> MAPPER.readValue(response, RepoFileContent.class))
+                .isInstanceOf(InvalidFormatException.class)
+                .hasMessageContaining("Value for 'content' is not a base64 encoded JSON");
+    }
+}
@@ -0,0 +1,127 @@
+package se.mwthinker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class BatchGeneratorTest {
+
+    @TempDir
+    private Path parentDir;
+
+    @Mock
+    private ProjectGenerator projectGenerator;
+
+    @Test
+    void readManifest() throws IOException {
+        // Given
+        Path manifest = parentDir.resolve("projects.json");
+        Files.writeString(manifest, """
+                {
+                    "projects": [
+                        { "name": "Service", "test": true, "dependencies": ["fmt", "spdlog"] },
+                        { "name": "Gui", "gui": true, "license": "Author", "description": "A gui" }
+                    ]
+                }
+                """);
+
+        // When
+        var projects = BatchGenerator.readManifest(manifest.toFile());
+
+        // Then
+        assertThat(projects).hasSize(2);
+        assertThat(projects.get(0).getName()).isEqualTo("Service");
+        assertThat(projects.get(0).isTest()).isTrue();
+        assertThat(projects.get(0).getDependencies()).containsExactly("fmt", "spdlog");
+        assertThat(projects.get(1).isGui()).isTrue();
+        assertThat(projects.get(1).getLicenseAuthor()).isEqualTo("Author");
+        assertThat(projects.get(1).getDescription()).isEqualTo("A gui");
+    }
+
+    @Test
+    void readManifestWithDuplicatedProject() throws IOException {
+        // Given
+        Path manifest = parentDir.resolve("projects.json");
+        Files.writeString(manifest, """
+                { "projects": [ { "name": "Service" }, { "name": "Service" } ] }
+                """);
+
+        // When/Then
+        assertThatThrownBy(() -> BatchGenerator.readManifest(manifest.toFile()))
+                .isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void readManifestWithPathAsProjectName() throws IOException {
+        // Given
+        Path manifest = parentDir.resolve("projects.json");
+        Files.writeString(manifest, """
+                { "projects": [ { "name": "../Service" } ] }
+                """);
+
+        // When/Then
+        assertThatThrownBy(() -> BatchGenerator.readManifest(manifest.toFile()))
+                .hasMessageContaining("must be a directory name");
+    }
+
+    @Test
+    void readManifestWithNullValues() throws IOException {
+        // Given
+        Path manifest = parentDir.resolve("projects.json");
+        Files.writeString(manifest, """
+                { "projects": [ { "name": "Service", "dependencies": null, "license": null } ] }
+                """);
+
+        // When
+        var projects = BatchGenerator.readManifest(manifest.toFile());
+
+        // Then
+        assertThat(projects.getFirst().getDependencies()).isEmpty();
+        assertThat(projects.getFirst().getLicenseAuthor()).isEmpty();
+    }
+
+    @Test
+    void failingProjectDoesNotStopOtherProjects() {
+        // Given
+        var first = createProject("First");
+        var failing = createProject("Failing");
+        var last = createProject("Last");
+        doThrow(new RuntimeException("Not Found"))
+                .when(projectGenerator).generate(any(), eq(failing));
+
+        // When
+        var results = new BatchGenerator(projectGenerator).generate(parentDir.toFile(), List.of(first, failing, last));
+
+        // Then
+        assertThat(results).containsExactly(
+                new BatchGenerator.Result("First", null),
+                new BatchGenerator.Result("Failing", "Not Found"),
+                new BatchGenerator.Result("Last", null)
+        );
+        verify(projectGenerator).generate(new File(parentDir.toFile(), "First"), first);
+        verify(projectGenerator).generate(new File(parentDir.toFile(), "Last"), last);
+    }
+
+    private static ProjectOptions createProject(String name) {
+        var options = new ProjectOptions();
+        options.setName(name);
+        return options;
+    }
+
+}
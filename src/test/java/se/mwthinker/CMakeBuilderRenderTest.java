@@ -0,0 +1,208 @@
+package se.mwthinker;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+// Renders the real templates and resources in memory.
+@ExtendWith(MockitoExtension.class)
+class CMakeBuilderRenderTest {
+
+    private InMemoryFileTree fileTree;
+    private CMakeBuilder cmakeBuilder;
+
+    @Mock
+    private Github github;
+
+    @BeforeEach
+    void setUp() {
+        fileTree = new InMemoryFileTree();
+        var fileSystem = new FileSystem("MyProject", fileTree, new ResourceHandler("empty-template"));
+        cmakeBuilder = new CMakeBuilder(fileSystem, github);
+        when(github.fetchLatestCommitSHA("microsoft", "vcpkg"))
+                .thenReturn("COMMIT_SHA");
+    }
+
+    @Test
+    void renderDefaultProject() {
+        // When
+        cmakeBuilder
+                .addSource("src/main.cpp")
+                .addVcpkgDependency("fmt")
+                .addLinkLibrary("fmt::fmt")
+                .buildFiles();
+
+        // Then
+        assertThat(fileTree.getFiles()).containsOnlyKeys(
+                ".gitattributes",
+                ".github/copilot-instructions.md",
+                ".github/workflows/ci.yml",
+                ".gitignore",
+                "CMakeLists.txt",
+                "CMakePresets.json",
+                "src/main.cpp",
+                "vcpkg-configuration.json",
+                "vcpkg.json"
+        );
+        assertThat(getFile("CMakeLists.txt"))
+                .contains("project(MyProject")
+                .contains("add_executable(MyProject")
+                .contains("find_package(fmt CONFIG REQUIRED)")
+                .contains("fmt::fmt");
+        assertThat(getFile("vcpkg.json"))
+                .contains("\"name\" : \"myproject\"")
+                .contains("\"fmt\"");
+        assertThat(getFile("vcpkg-configuration.json"))
+                .contains("\"baseline\" : \"COMMIT_SHA\"");
+    }
+
+    @Test
+    void renderTestProjectAndLicense() {
+        // When
+        cmakeBuilder
+                .addSource("src/main.cpp")
+                .withTestProject(true)
+                .withLicense(LicenseType.MIT, "Author")
+                .buildFiles();
+
+        // Then
+        assertThat(getFile("MyProject_Test/CMakeLists.txt"))
+                .contains("project(MyProject_Test")
+                .contains("gtest_discover_tests(MyProject_Test)");
+        assertThat(fileTree.getFiles()).containsKey("MyProject_Test/src/tests.cpp");
+        assertThat(getFile("CMakeLists.txt")).contains("add_subdirectory(MyProject_Test)");
+        assertThat(getFile("LICENSE")).contains("Author");
+        assertThat(getFile(".github/workflows/ci.yml")).contains("--test-dir build_debug/MyProject_Test");
+    }
+
+    @Test
+    void renderVcpkgCachePresets() {
+        // When
+        cmakeBuilder
+                .addSource("src/main.cpp")
+                .withVcpkgBinaryCache("")
+                .withVcpkgDownloads("/shared/downloads")
+                .withSharedVcpkgInstalled("")
+                .buildFiles();
+
+        // Then
+        assertThat(getFile("CMakePresets.json"))
+                .contains("\"inherits\": [\"vcpkg\", \"vcpkg-cache-unix\"]")
+                .contains("\"VCPKG_DEFAULT_BINARY_CACHE\": \"$env{HOME}/.cache/vcpkg/archives\"")
+                .contains("\"VCPKG_DEFAULT_BINARY_CACHE\": \"$env{LOCALAPPDATA}/vcpkg/archives\"")
+                .contains("\"VCPKG_BINARY_SOURCES\": \"clear;default,readwrite\"")
+                .contains("\"VCPKG_DOWNLOADS\": \"/shared/downloads\"")
+                .contains("\"value\": \"$env{HOME}/.cache/vcpkg/installed/COMMIT_SHA\"");
+        assertThat(getFile("CMakeLists.txt")).contains("file(MAKE_DIRECTORY \"${VcpkgDirectory}\")");
+    }
+
+    @Test
+    void renderOptimizationPresets() {
+        // When
+        cmakeBuilder
+                .addSource("src/main.cpp")
+                .withTestProject(true)
+                .withGenerator(CMakeGenerator.NINJA_MULTI_CONFIG)
+                .withLinkTimeOptimization(true)
+                .withProfileGuidedOptimization(true)
+                .buildFiles();
+
+        // Then
+        assertThat(getFile("CMakePresets.json"))
+                .contains("\"generator\": \"Ninja Multi-Config\"")
+                .contains("\"name\": \"unix-release\"")
+                .contains("\"CMAKE_INTERPROCEDURAL_OPTIMIZATION\": \"ON\"")
+                .contains("\"CMAKE_CXX_FLAGS\": \"-fprofile-generate=${sourceDir}/build/pgo-profile\"")
+                .contains("\"CMAKE_CXX_FLAGS\": \"-fprofile-use=${sourceDir}/build/pgo-profile\"")
+                .contains("\"testPresets\"")
+                .doesNotContain("CMAKE_BUILD_TYPE");
+        assertThat(getFile("CMakeLists.txt")).contains("enable_testing()");
+    }
+
+    @Test
+    void renderBenchmarkProject() {
+        // When
+        cmakeBuilder
+                .addSource("src/main.cpp")
+                .withTestProject(true)
+                .withBenchmarkProject(true)
+                .buildFiles();
+
+        // Then
+        assertThat(fileTree.getFiles()).containsKey("MyProject_Bench/src/benchmarks.cpp");
+        assertThat(getFile("MyProject_Bench/CMakeLists.txt"))
+                .contains("benchmark::benchmark benchmark::benchmark_main")
+                .contains("add_custom_target(MyProject_Bench_Run");
+        assertThat(getFile("CMakeLists.txt"))
+                .contains("option(MyProject_Bench \"Build the benchmarks\" ON)")
+                .contains("add_subdirectory(MyProject_Bench)");
+        assertThat(getFile("CMakePresets.json"))
+                .contains("\"name\": \"unix-bench\"")
+                .contains("\"targets\": [\"MyProject_Bench\"]");
+        assertThat(getFile(".github/workflows/ci.yml"))
+                .contains("--target MyProject_Bench_Run")
+                .contains("path: build_release/MyProject_Bench/MyProject_Bench.json");
+    }
+
+    @Test
+    void renderBuildSpeedOptions() {
+        // When
+        cmakeBuilder
+                .addSource("src/main.cpp")
+                .addVcpkgDependency("fmt")
+                .addLinkLibrary("fmt::fmt")
+                .addVcpkgDependency("spdlog")
+                .withTestProject(true)
+                .withPrecompiledHeader(true)
+                .withUnityBuild(16)
+                .withCompilerLauncher(true)
+                .buildFiles();
+
+        // Then
+        assertThat(getFile("src/pch.h"))
+                .contains("#include <vector>")
+                .contains("#include <fmt/format.h>")
+                .doesNotContain("spdlog")
+                .doesNotContain("gtest");
+        assertThat(getFile("MyProject_Test/src/pch.h")).contains("#include <gtest/gtest.h>");
+        assertThat(getFile("CMakeLists.txt"))
+                .contains("find_program(CompilerLauncher NAMES sccache ccache)")
+                .contains("UNITY_BUILD_BATCH_SIZE 16")
+                .contains("target_precompile_headers(MyProject");
+        assertThat(getFile("MyProject_Test/CMakeLists.txt"))
+                .contains("UNITY_BUILD_BATCH_SIZE 16")
+                .contains("target_precompile_headers(MyProject_Test");
+    }
+
+    @Test
+    void renderCiWithBuildTypeMatrix() {
+        // When
+        cmakeBuilder
+                .addSource("src/main.cpp")
+                .withTestProject(true)
+                .withCiMatrixBuildTypes(true)
+                .buildFiles();
+
+        // Then
+        assertThat(getFile(".github/workflows/ci.yml"))
+                .contains("build_type: [Debug, Release]")
+                .contains("uses: actions/cache@v4")
+                .contains("uses: hendrikmuhs/ccache-action@v1.2")
+                .contains("cmake --build build --config ${{ matrix.build_type }} --parallel 4")
+                .contains("--test-dir build/MyProject_Test -C ${{ matrix.build_type }}")
+                .doesNotContain("build_debug");
+    }
+
+    private String getFile(String path) {
+        assertThat(fileTree.getFiles()).containsKey(path);
+        return new String(fileTree.getFiles().get(path), StandardCharsets.UTF_8);
+    }
+
+}
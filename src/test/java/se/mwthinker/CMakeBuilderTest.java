@@ -6,11 +6,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -64,15 +69,15 @@ class CMakeBuilderTest {
         verify(fileSystem).copyResourceTo("gitattributes", ".gitattributes");
         verify(fileSystem).copyResourceTo("gitignore", ".gitignore");
         verify(fileSystem).saveFileFromTemplate(any(), eq("CMakeLists.txt"));
-        verify(fileSystem).copyResourceTo("CMakePresets.json");
+        verify(fileSystem).saveFileFromTemplate(any(), eq("CMakePresets.json"));
         verify(fileSystem).saveToFile(any(VcpkgObject.class), eq("vcpkg.json"));
         verify(fileSystem).saveToFile(any(VcpkgConfigurationObject.class), eq("vcpkg-configuration.json"));
         verify(fileSystem).saveFileFromTemplate(any(), eq(".github/workflows/ci.yml"));
         verify(fileSystem).copyResourceTo("src/main.cpp");
 
         verify(fileSystem, times(2)).copyResourceTo(any(), any());
-        verify(fileSystem, times(3)).copyResourceTo(any());
-        verify(fileSystem, times(2)).saveFileFromTemplate(any(), any());
+        verify(fileSystem, times(2)).copyResourceTo(any());
+        verify(fileSystem, times(3)).saveFileFromTemplate(any(), any());
         verify(fileSystem, times(1)).saveToFile(any(VcpkgObject.class), eq("vcpkg.json"));
         verify(fileSystem, times(1)).saveToFile(any(VcpkgConfigurationObject.class), eq("vcpkg-configuration.json"));
     }
@@ -127,6 +132,24 @@ class CMakeBuilderTest {
         verify(fileSystem).saveFileFromTemplate(any(), eq("Test_CMakeLists.ftl"), eq("MyProject_Test/CMakeLists.txt"));
     }
 
+    @Test
+    void buildBenchmarkProject() {
+        // Given
+        when(fileSystem.getProjectName()).thenReturn("MyProject");
+
+        // When
+        cmakeBuilder
+                .addSource("src/main.cpp")
+                .withBenchmarkProject(true)
+                .buildFiles();
+
+        // Then
+        verify(fileSystem).copyResourceTo("MyProject_Bench/src/benchmarks.cpp");
+        verify(fileSystem).saveFileFromTemplate(any(), eq("Bench_CMakeLists.ftl"), eq("MyProject_Bench/CMakeLists.txt"));
+        verify(fileSystem).saveToFile(argThat(argument ->
+                argument instanceof VcpkgObject vcpkg && vcpkg.getDependencies().contains("benchmark")), eq("vcpkg.json"));
+    }
+
     @Test
     void buildWithLicenseFile() {
         // Given
@@ -142,4 +165,119 @@ class CMakeBuilderTest {
         verify(fileSystem).saveFileFromTemplate(any(), eq("LICENSE"));
     }
 
+    @Test
+    void buildProjectWithRegistry() {
+        // Given
+        when(fileSystem.getProjectName()).thenReturn("MyProject");
+        when(github.fetchLatestCommitSHA("microsoft", "vcpkg"))
+                .thenReturn("VCPKG_SHA");
+        when(github.fetchLatestCommitSHA("owner", "registry"))
+                .thenReturn("REGISTRY_SHA");
+
+        // When
+        cmakeBuilder
+                .addSource("src/main.cpp")
+                .addRegistry("owner", "registry", "package")
+                .buildFiles();
+
+        // Then
+        verify(fileSystem).saveToFile(argThat(argument -> {
+            if (argument instanceof VcpkgConfigurationObject vcpkgConfig) {
+                var registries = vcpkgConfig.getRegistries();
+                return "VCPKG_SHA".equals(vcpkgConfig.getDefaultRegistry().getBaseline())
+                        && registries.size() == 1
+                        && "REGISTRY_SHA".equals(registries.getFirst().getBaseline())
+                        && "https://github.com/owner/registry.git".equals(registries.getFirst().getRepository());
+            }
+            return false;
+        }), eq("vcpkg-configuration.json"));
+    }
+
+    @Test
+    void buildProjectWithExternalProjectDependencies() {
+        // Given
+        var externalVcpkgObject = new VcpkgObject();
+        externalVcpkgObject.addDependency("sdl3");
+        when(fileSystem.getProjectName()).thenReturn("MyProject");
+        when(github.fetchLatestCommitSHA("owner", "External"))
+                .thenReturn("EXTERNAL_SHA");
+        when(github.fetchVcpkgObject("owner", "External", "EXTERNAL_SHA"))
+                .thenReturn(externalVcpkgObject);
+
+        // When
+        cmakeBuilder
+                .addSource("src/main.cpp")
+                .addExternalProjectsWithDependencies("owner", "External")
+                .buildFiles();
+
+        // Then
+        verify(fileSystem).saveToFile(argThat(argument -> {
+            if (argument instanceof VcpkgObject vcpkg) {
+                return vcpkg.getDependencies().contains("sdl3");
+            }
+            return false;
+        }), eq("vcpkg.json"));
+        verify(fileSystem).saveFileFromTemplate(argThat(data ->
+                List.of(new CMakeBuilder.ExternalProject("External", "https://github.com/owner/External.git", "EXTERNAL_SHA")).equals(data.get("externalProjects"))
+        ), eq("ExternalFetchContent.cmake"));
+    }
+
+    @Test
+    void buildFailsWhenGithubLookupFails() {
+        // Given
+        when(github.fetchLatestCommitSHA("owner", "registry"))
+                .thenThrow(new RuntimeException("Not Found"));
+
+        // When/Then
+        assertThatThrownBy(() -> cmakeBuilder
+                .addSource("src/main.cpp")
+                .addRegistry("owner", "registry")
+                .buildFiles())
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Not Found");
+    }
+
+    @Test
+    void buildFailsWithEveryFailedFile() {
+        // Given
+        when(fileSystem.getProjectName()).thenReturn("MyProject");
+        var copyError = new RuntimeException("Copy failed");
+        var templateError = new RuntimeException("Template failed");
+        doThrow(copyError).when(fileSystem).copyResourceTo("src/main.cpp");
+        doThrow(templateError).when(fileSystem).saveFileFromTemplate(any(), eq("CMakeLists.txt"));
+
+        // When/Then
+        assertThatThrownBy(() -> cmakeBuilder
+                .addSource("src/main.cpp")
+                .buildFiles())
+                .isSameAs(copyError)
+                .hasSuppressedException(templateError);
+        verify(fileSystem).saveFileFromTemplate(any(), eq(".github/workflows/ci.yml"));
+    }
+
+    @Test
+    void pinnedCommitsAreNotLookedUp() {
+        // Given
+        when(fileSystem.getProjectName()).thenReturn("MyProject");
+
+        // When
+        cmakeBuilder
+                .addSource("src/main.cpp")
+                .addRegistry("owner", "registry")
+                .withPinnedCommits(Map.of(
+                        new GithubRepository("microsoft", "vcpkg"), "PINNED_BASELINE",
+                        new GithubRepository("owner", "registry"), "PINNED_REGISTRY"))
+                .buildFiles();
+
+        // Then
+        verify(github, never()).fetchLatestCommitSHA(any(), any());
+        verify(fileSystem).saveToFile(argThat(argument -> {
+            if (argument instanceof VcpkgConfigurationObject vcpkgConfig) {
+                return "PINNED_BASELINE".equals(vcpkgConfig.getDefaultRegistry().getBaseline())
+                        && "PINNED_REGISTRY".equals(vcpkgConfig.getRegistries().getFirst().getBaseline());
+            }
+            return false;
+        }), eq("vcpkg-configuration.json"));
+    }
+
 }
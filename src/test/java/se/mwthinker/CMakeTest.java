@@ -0,0 +1,78 @@
+package se.mwthinker;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CMakeTest {
+
+    @Mock
+    private Github github;
+
+    @Test
+    void buildDirIsBinaryDirOfPreset() throws IOException {
+        assertBuildDirIsBinaryDirOfPreset(false);
+    }
+
+    @Test
+    void releaseBuildDirIsBinaryDirOfPreset() throws IOException {
+        assertBuildDirIsBinaryDirOfPreset(true);
+    }
+
+    @Test
+    void configureUsesBinaryDirOfPreset() {
+        // When
+        var cmdLine = new CMake(false, Map.of()).createConfigureCommand(false);
+
+        // Then
+        assertThat(cmdLine.getArguments()).containsExactly("--preset", CMake.getPreset(false));
+    }
+
+    private void assertBuildDirIsBinaryDirOfPreset(boolean release) throws IOException {
+        // Given
+        when(github.fetchLatestCommitSHA("microsoft", "vcpkg")).thenReturn("COMMIT_SHA");
+        var fileTree = new InMemoryFileTree();
+        new CMakeBuilder(new FileSystem("MyProject", fileTree, new ResourceHandler("empty-template")), github)
+                .addSource("src/main.cpp")
+                .withLinkTimeOptimization(true)
+                .buildFiles();
+        File projectDir = new File("/projects/MyProject");
+
+        // When
+        File buildDir = CMake.getBuildDir(projectDir, release);
+
+        // Then
+        String preset = CMake.getPreset(release);
+        JsonNode presets = new ObjectMapper().readTree(fileTree.getFiles().get("CMakePresets.json")).path("configurePresets");
+        String binaryDir = getBinaryDir(presets, preset)
+                .replace("${sourceDir}", projectDir.getPath())
+                .replace("${presetName}", preset);
+        assertThat(buildDir).isEqualTo(new File(binaryDir));
+    }
+
+    // The binaryDir of the preset, or of the first preset it inherits.
+    private static String getBinaryDir(JsonNode presets, String name) {
+        for (JsonNode preset : presets) {
+            if (!name.equals(preset.path("name").asText())) {
+                continue;
+            }
+            if (preset.has("binaryDir")) {
+                return preset.path("binaryDir").asText();
+            }
+            JsonNode inherits = preset.path("inherits");
+            return getBinaryDir(presets, inherits.isArray() ? inherits.get(0).asText() : inherits.asText());
+        }
+        throw new AssertionError("No configure preset " + name);
+    }
+}
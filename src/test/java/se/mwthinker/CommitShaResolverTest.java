@@ -0,0 +1,59 @@
+package se.mwthinker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class CommitShaResolverTest {
+
+    private static final String COMMIT_SHA = "0123456789abcdef0123456789abcdef01234567";
+
+    @TempDir
+    private Path workingDir;
+
+    @Test
+    void shaWithoutCommitIsRejected() {
+        assertThatThrownBy(() -> CommitShaResolver.of("sha:", Map.of(), null))
+                .hasMessageContaining("sha:SHA");
+    }
+
+    @Test
+    void localPathIsRelativeToWorkingDir() throws IOException {
+        // Given
+        Path gitDir = Files.createDirectories(workingDir.resolve("mirror/.git"));
+        Files.writeString(gitDir.resolve("HEAD"), COMMIT_SHA + "\n");
+
+        // When
+        var resolver = CommitShaResolver.of("local:mirror", Map.of(), workingDir.toFile());
+
+        // Then
+        assertThat(resolver.resolveLatestCommitSha("microsoft", "vcpkg")).contains(COMMIT_SHA);
+    }
+
+    @Test
+    void lsRemoteRunsGitFromPathOfEnvironment() throws IOException {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+
+        // Given
+        Path binDir = Files.createDirectories(workingDir.resolve("bin"));
+        Path git = Files.writeString(binDir.resolve("git"), "#!/bin/sh\nprintf '%s\\tHEAD\\n' \"$COMMIT_SHA\"\n");
+        Files.setPosixFilePermissions(git, PosixFilePermissions.fromString("rwxr-xr-x"));
+        var environment = Map.of("PATH", binDir.toString(), "COMMIT_SHA", COMMIT_SHA);
+
+        // When
+        var resolver = CommitShaResolver.of("ls-remote", environment, workingDir.toFile());
+
+        // Then
+        assertThat(resolver.resolveLatestCommitSha("microsoft", "vcpkg")).contains(COMMIT_SHA);
+    }
+}
@@ -0,0 +1,55 @@
+package se.mwthinker;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DaemonProtocolTest {
+
+    @Test
+    void requestIsReadAsWritten() throws IOException {
+        // Given
+        var bytes = new ByteArrayOutputStream();
+        var request = new DaemonProtocol.Request(Path.of("/home/user/projects"), new String[] { "MyProject", "--test", "-l", "Åsa" },
+                Map.of("GITHUB_TOKEN", "TOKEN", "PATH", "/usr/local/bin:/usr/bin"));
+
+        // When
+        DaemonProtocol.writeRequest(new DataOutputStream(bytes), request);
+        var readRequest = DaemonProtocol.readRequest(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        // Then
+        assertThat(readRequest.workingDir()).isEqualTo(request.workingDir());
+        assertThat(readRequest.args()).containsExactly(request.args());
+        assertThat(readRequest.environment()).isEqualTo(request.environment());
+    }
+
+    @Test
+    void outputIsSentAsFramesFollowedByExitCode() throws IOException {
+        // Given
+        var bytes = new ByteArrayOutputStream();
+        var out = new DataOutputStream(bytes);
+
+        // When
+        DaemonProtocol.frameOutputStream(out, DaemonProtocol.STDOUT).write("Generating".getBytes(StandardCharsets.UTF_8));
+        DaemonProtocol.frameOutputStream(out, DaemonProtocol.STDERR).write("Error".getBytes(StandardCharsets.UTF_8));
+        DaemonProtocol.writeExitCode(out, 1);
+
+        // Then
+        var in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertThat(in.readByte()).isEqualTo(DaemonProtocol.STDOUT);
+        assertThat(new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8)).isEqualTo("Generating");
+        assertThat(in.readByte()).isEqualTo(DaemonProtocol.STDERR);
+        assertThat(new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8)).isEqualTo("Error");
+        assertThat(in.readByte()).isEqualTo(DaemonProtocol.EXIT);
+        assertThat(in.readInt()).isEqualTo(1);
+    }
+}
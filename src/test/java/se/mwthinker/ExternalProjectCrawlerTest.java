@@ -0,0 +1,87 @@
+package se.mwthinker;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExternalProjectCrawlerTest {
+
+    @Mock
+    private Github github;
+
+    private ExternalProjectCrawler crawler;
+
+    @BeforeEach
+    void setUp() {
+        crawler = new ExternalProjectCrawler(new GithubLookups(github));
+    }
+
+    @Test
+    void projectsAreInBreadthFirstOrder() {
+        // Given
+        givenProject("App", "owner/Gui", "owner/Signal");
+        givenProject("Gui", "owner/Math", "owner/Signal");
+        givenProject("Signal");
+        givenProject("Math");
+
+        // When
+        var projects = GithubLookups.join(crawler.crawl(List.of(new GithubRepository("owner", "App"))));
+
+        // Then
+        assertThat(projects)
+                .extracting(project -> project.repository().repo())
+                .containsExactly("App", "Gui", "Signal", "Math");
+        assertThat(projects.getFirst().commitSha()).isEqualTo("App_SHA");
+    }
+
+    @Test
+    void projectInCycleIsFetchedOnce() {
+        // Given
+        givenProject("A", "owner/B");
+        givenProject("B", "owner/A");
+
+        // When
+        var projects = GithubLookups.join(crawler.crawl(List.of(new GithubRepository("owner", "A"))));
+
+        // Then
+        assertThat(projects)
+                .extracting(project -> project.repository().repo())
+                .containsExactly("A", "B");
+        verify(github, times(1)).fetchVcpkgObject("owner", "A", "A_SHA");
+    }
+
+    @Test
+    void crawlFailsWhenProjectFails() {
+        // Given
+        givenProject("App", "owner/Missing");
+        when(github.fetchLatestCommitSHA("owner", "Missing"))
+                .thenThrow(new RuntimeException("Not Found"));
+
+        // When/Then
+        assertThatThrownBy(() -> GithubLookups.join(crawler.crawl(List.of(new GithubRepository("owner", "App")))))
+                .hasMessage("Not Found");
+    }
+
+    private void givenProject(String repo, String... externalProjects) {
+        var vcpkgObject = new VcpkgObject();
+        vcpkgObject.setName(repo.toLowerCase());
+        for (String externalProject : externalProjects) {
+            vcpkgObject.addExternalProject(externalProject);
+        }
+        when(github.fetchLatestCommitSHA("owner", repo))
+                .thenReturn(repo + "_SHA");
+        when(github.fetchVcpkgObject("owner", repo, repo + "_SHA"))
+                .thenReturn(vcpkgObject);
+    }
+}
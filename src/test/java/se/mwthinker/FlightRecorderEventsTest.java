@@ -0,0 +1,51 @@
+package se.mwthinker;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlightRecorderEventsTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void templateRenderAndResourceCopyAreRecorded() throws IOException {
+        // Given
+        var fileSystem = new FileSystem("MyProject", new InMemoryFileTree(), new ResourceHandler("empty-template"));
+        Path recordingFile = tempDir.resolve("recording.jfr");
+
+        // When
+        try (var recording = new Recording()) {
+            recording.enable(TemplateRenderEvent.class);
+            recording.enable(ResourceCopyEvent.class);
+            recording.start();
+            fileSystem.saveFileFromTemplate(Map.of("author", "Author"), "LICENSE");
+            fileSystem.copyResourceTo("src/main.cpp");
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        // Then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+        assertThat(events).anySatisfy(event -> {
+            assertThat(event.getEventType().getName()).isEqualTo("se.mwthinker.TemplateRender");
+            assertThat(event.getString("template")).isEqualTo("LICENSE.ftl");
+            assertThat(event.getLong("size")).isPositive();
+        });
+        assertThat(events).anySatisfy(event -> {
+            assertThat(event.getEventType().getName()).isEqualTo("se.mwthinker.ResourceCopy");
+            assertThat(event.getString("resource")).isEqualTo("main.cpp");
+            assertThat(event.getString("file")).isEqualTo("src/main.cpp");
+        });
+    }
+}
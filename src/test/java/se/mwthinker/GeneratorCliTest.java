@@ -0,0 +1,144 @@
+package se.mwthinker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeneratorCliTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void unknownGeneratorIsArgumentError() {
+        // Given
+        var generatorCli = new GeneratorCli(null, null, Map.of());
+
+        // When
+        int exitCode = generatorCli.run(new String[] { "MyProject", "--generator", "bogus" });
+
+        // Then
+        assertThat(exitCode).isEqualTo(2);
+    }
+
+    @Test
+    void generatorIsParsedFromOptionName() {
+        // When
+        var parseResult = new CommandLine(new GeneratorCli()).parseArgs("MyProject", "--generator", "ninja-multi-config");
+
+        // Then
+        assertThat(parseResult.<CMakeGenerator>matchedOptionValue("--generator", null)).isEqualTo(CMakeGenerator.NINJA_MULTI_CONFIG);
+    }
+
+    @Test
+    void resolverWithoutOwnerIsArgumentError() {
+        // Given
+        var generatorCli = new GeneratorCli(null, tempDir.toFile(), Map.of());
+
+        // When
+        int exitCode = generatorCli.run(new String[] { "MyProject", "--no-cache", "--resolver", "/vcpkg=sha:COMMIT_SHA" });
+
+        // Then
+        assertThat(exitCode).isEqualTo(2);
+        assertThat(tempDir).isEmptyDirectory();
+    }
+
+    @Test
+    void vcpkgFlagsDoNotTakeProjectName() {
+        // When
+        var parseResult = new CommandLine(new GeneratorCli()).parseArgs("--vcpkg-binary-cache", "--vcpkg-downloads", "--vcpkg-shared-installed", "MyProject");
+
+        // Then
+        assertThat(parseResult.<Object>matchedPositionalValue(0, null)).hasToString("MyProject");
+        assertThat(parseResult.hasMatchedOption("--vcpkg-shared-installed")).isTrue();
+    }
+
+    @Test
+    void vcpkgDirIsGivenBySeparateOption() {
+        // When
+        var parseResult = new CommandLine(new GeneratorCli()).parseArgs("--vcpkg-binary-cache-dir", "/cache", "MyProject");
+
+        // Then
+        assertThat(parseResult.<String>matchedOptionValue("--vcpkg-binary-cache-dir", null)).isEqualTo("/cache");
+        assertThat(parseResult.<Object>matchedPositionalValue(0, null)).hasToString("MyProject");
+    }
+
+    @Test
+    void unityBuildFlagDoesNotTakeProjectName() {
+        // When
+        var parseResult = new CommandLine(new GeneratorCli()).parseArgs("--unity-build", "MyProject");
+
+        // Then
+        assertThat(parseResult.<Object>matchedPositionalValue(0, null)).hasToString("MyProject");
+        assertThat(parseResult.hasMatchedOption("--unity-build")).isTrue();
+    }
+
+    @Test
+    void negativeUnityBuildBatchSizeIsArgumentError() {
+        // Given
+        var generatorCli = new GeneratorCli(null, tempDir.toFile(), Map.of());
+
+        // When
+        int exitCode = generatorCli.run(new String[] { "MyProject", "--unity-build-batch-size", "-1" });
+
+        // Then
+        assertThat(exitCode).isEqualTo(2);
+        assertThat(tempDir).isEmptyDirectory();
+    }
+
+    @Test
+    void startupProfileIsArgumentErrorInDaemon() {
+        // Given
+        var daemon = new DaemonServer(tempDir.resolve("daemon.sock"), Duration.ofSeconds(1));
+        var generatorCli = new GeneratorCli(daemon, tempDir.toFile(), Map.of());
+
+        // When
+        int exitCode = generatorCli.run(new String[] { "MyProject", "--startup-profile" });
+
+        // Then
+        assertThat(exitCode).isEqualTo(2);
+        assertThat(tempDir).isEmptyDirectory();
+    }
+
+    @Test
+    void startupProfileIsArgumentErrorWithUseDaemon() {
+        // Given
+        var generatorCli = new GeneratorCli(null, tempDir.toFile(), Map.of());
+
+        // When
+        int exitCode = generatorCli.run(new String[] { "MyProject", "--use-daemon", "--startup-profile" });
+
+        // Then
+        assertThat(exitCode).isEqualTo(2);
+        assertThat(tempDir).isEmptyDirectory();
+    }
+
+    @Test
+    void timingsFlagDoesNotTakeProjectName() {
+        // When
+        var parseResult = new CommandLine(new GeneratorCli()).parseArgs("--timings", "MyProject");
+
+        // Then
+        assertThat(parseResult.<Object>matchedPositionalValue(0, null)).hasToString("MyProject");
+        assertThat(parseResult.hasMatchedOption("--timings")).isTrue();
+    }
+
+    @Test
+    void noTimingsAreWrittenForHelp() {
+        // Given
+        var generatorCli = new GeneratorCli(null, tempDir.toFile(), Map.of());
+
+        // When
+        int exitCode = generatorCli.run(new String[] { "--timings", "--help" });
+
+        // Then
+        assertThat(exitCode).isZero();
+        assertThat(tempDir).isEmptyDirectory();
+    }
+}
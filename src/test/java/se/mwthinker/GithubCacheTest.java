@@ -0,0 +1,94 @@
+package se.mwthinker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GithubCacheTest {
+
+    @TempDir
+    private Path cacheDir;
+
+    @Test
+    void getStoredEntry() {
+        // Given
+        var cache = new GithubCache(cacheDir, Duration.ofMinutes(10), GithubCache.DEFAULT_MAX_SIZE);
+        var entry = new GithubCache.Entry("\"etag\"", null, System.currentTimeMillis(), "{\"sha\":\"COMMIT_SHA\"}\n".getBytes(StandardCharsets.UTF_8));
+
+        // When
+        cache.put("owner", "repo", "commits?per_page=1&page=1", entry);
+
+        // Then
+        assertThat(cache.get("owner", "repo", "commits?per_page=1&page=1")).get().usingRecursiveComparison().isEqualTo(entry);
+        assertThat(cache.get("owner", "repo", "contents/vcpkg.json")).isEmpty();
+    }
+
+    @Test
+    void entryIsStaleAfterTtl() {
+        // Given
+        var cache = new GithubCache(cacheDir, Duration.ofMinutes(10), GithubCache.DEFAULT_MAX_SIZE);
+
+        // When/Then
+        assertThat(cache.isFresh(new GithubCache.Entry(null, null, System.currentTimeMillis(), new byte[0]))).isTrue();
+        assertThat(cache.isFresh(new GithubCache.Entry(null, null, System.currentTimeMillis() - Duration.ofMinutes(11).toMillis(), new byte[0]))).isFalse();
+    }
+
+    @Test
+    void evictLeastRecentlyUsedEntries() throws IOException {
+        // Given
+        var cache = new GithubCache(cacheDir, Duration.ofMinutes(10), 150);
+        byte[] body = "x".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+        // When
+        cache.put("owner", "first", "commits", new GithubCache.Entry(null, null, 1, body));
+        try (var files = Files.walk(cacheDir)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(0));
+            }
+        }
+        cache.put("owner", "second", "commits", new GithubCache.Entry(null, null, 2, body));
+
+        // Then
+        assertThat(cache.get("owner", "second", "commits")).isPresent();
+        assertThat(cache.get("owner", "first", "commits")).isEmpty();
+    }
+
+    @Test
+    void fullCacheIsNotWalkedOnEveryPut() {
+        // Given
+        var cache = new GithubCache(cacheDir, Duration.ofMinutes(10), 1500);
+        byte[] body = "x".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+        // When
+        for (int i = 0; i < 40; ++i) {
+            cache.put("owner", "repo" + i, "commits", new GithubCache.Entry(null, null, i, body));
+        }
+
+        // Then
+        assertThat(cache.getWalks()).isLessThanOrEqualTo(15);
+    }
+
+    @Test
+    void replacedEntryIsNotCountedTwice() {
+        // Given
+        var cache = new GithubCache(cacheDir, Duration.ofMinutes(10), 1500);
+        byte[] body = "x".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+        // When
+        for (int i = 0; i < 40; ++i) {
+            cache.put("owner", "repo", "commits", new GithubCache.Entry(null, null, i, body));
+        }
+
+        // Then
+        assertThat(cache.getWalks()).isEqualTo(1);
+    }
+
+}
@@ -0,0 +1,126 @@
+package se.mwthinker;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GithubGraphQlTest {
+    private static final String RESPONSE = """
+            {
+              "data": {
+                "r0": { "defaultBranchRef": { "target": { "oid": "VCPKG_SHA", "file": null } } },
+                "r1": { "defaultBranchRef": { "target": { "oid": "EXTERNAL_SHA", "file": { "object": { "text": "{ \\"name\\": \\"external\\", \\"dependencies\\": [\\"sdl3\\"] }" } } } } },
+                "r2": null
+              },
+              "errors": [ { "type": "NOT_FOUND", "path": ["r2"] } ]
+            }
+            """;
+
+    @Mock
+    private Github github;
+
+    private HttpServer server;
+    private final Queue<JsonNode> requests = new ConcurrentLinkedQueue<>();
+    private final Queue<String> authorizations = new ConcurrentLinkedQueue<>();
+    private int status = 200;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/graphql", exchange -> {
+            requests.add(new ObjectMapper().readTree(exchange.getRequestBody()));
+            authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+            byte[] body = RESPONSE.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void fetchAllRepositoriesInOneRequest() {
+        // Given
+        var graphQl = createGraphQl();
+        var repositories = List.of(
+                new GithubRepository("microsoft", "vcpkg"),
+                new GithubRepository("owner", "External"),
+                new GithubRepository("owner", "Missing"));
+
+        // When
+        var results = graphQl.fetch(repositories, true);
+
+        // Then
+        assertThat(requests).hasSize(1);
+        assertThat(authorizations).containsExactly("bearer TOKEN");
+        assertThat(requests.peek().get("variables").get("o1").asText()).isEqualTo("owner");
+        assertThat(requests.peek().get("variables").get("n1").asText()).isEqualTo("External");
+        assertThat(results).containsOnlyKeys(repositories.get(0), repositories.get(1));
+        assertThat(results.get(repositories.get(0))).isEqualTo(new GithubGraphQl.Result("VCPKG_SHA", null));
+        assertThat(results.get(repositories.get(1)).commitSha()).isEqualTo("EXTERNAL_SHA");
+        assertThat(results.get(repositories.get(1)).vcpkgJson()).contains("sdl3");
+    }
+
+    @Test
+    void prefetchedLookupsDoNotUseRest() {
+        // Given
+        var githubLookups = new GithubLookups(github, createGraphQl());
+
+        // When
+        githubLookups.prefetch(List.of(new GithubRepository("microsoft", "vcpkg")), List.of(new GithubRepository("owner", "External")));
+        String baseline = GithubLookups.join(githubLookups.latestCommitSha("microsoft", "vcpkg"));
+        var vcpkgObject = GithubLookups.join(githubLookups.vcpkgObject("owner", "External"));
+
+        // Then
+        assertThat(baseline).isEqualTo("VCPKG_SHA");
+        assertThat(vcpkgObject.getDependencies()).containsExactly("sdl3");
+        verify(github, never()).fetchLatestCommitSHA(any(), any());
+        verify(github, never()).fetchVcpkgObject(any(), any(), any());
+    }
+
+    @Test
+    void lookupsUseRestWhenGraphQlFails() {
+        // Given
+        status = 502;
+        when(github.fetchLatestCommitSHA("microsoft", "vcpkg")).thenReturn("REST_SHA");
+        var githubLookups = new GithubLookups(github, createGraphQl());
+
+        // When
+        githubLookups.prefetch(List.of(new GithubRepository("microsoft", "vcpkg")), List.of());
+        String baseline = GithubLookups.join(githubLookups.latestCommitSha("microsoft", "vcpkg"));
+
+        // Then
+        assertThat(baseline).isEqualTo("REST_SHA");
+    }
+
+    private GithubGraphQl createGraphQl() {
+        var scheduler = new GithubRequestScheduler(null, 1, 0, Duration.ZERO);
+        return new GithubGraphQl(null, scheduler, "http://localhost:" + server.getAddress().getPort() + "/graphql", "TOKEN");
+    }
+}
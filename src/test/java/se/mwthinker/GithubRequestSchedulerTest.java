@@ -0,0 +1,154 @@
+package se.mwthinker;
+
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GithubRequestSchedulerTest {
+    private record Reply(int status, Map<String, String> headers) {}
+
+    private HttpServer server;
+    private final OkHttpClient client = new OkHttpClient();
+    private final Queue<Reply> replies = new ConcurrentLinkedQueue<>();
+    private final Queue<String> authorizations = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            authorizations.add(String.valueOf(exchange.getRequestHeaders().getFirst("Authorization")));
+            var reply = replies.isEmpty() ? new Reply(200, Map.of()) : replies.poll();
+            reply.headers().forEach((name, value) -> exchange.getResponseHeaders().add(name, value));
+            exchange.sendResponseHeaders(reply.status(), -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void retryServerErrors() {
+        // Given
+        var scheduler = new GithubRequestScheduler(null, 1, 4, Duration.ZERO, Duration.ofMillis(1));
+        replies.add(new Reply(502, Map.of()));
+        replies.add(new Reply(503, Map.of()));
+
+        // When
+        try (Response response = scheduler.execute(client, createRequest(), GithubRequestScheduler.CORE)) {
+            // Then
+            assertThat(response.code()).isEqualTo(200);
+        }
+        assertThat(scheduler.getStatistics().requests()).isEqualTo(3);
+        assertThat(scheduler.getStatistics().retries()).isEqualTo(2);
+    }
+
+    @Test
+    void returnLastServerErrorWhenOutOfRetries() {
+        // Given
+        var scheduler = new GithubRequestScheduler(null, 1, 1, Duration.ZERO, Duration.ofMillis(1));
+        replies.add(new Reply(502, Map.of()));
+        replies.add(new Reply(500, Map.of()));
+
+        // When
+        try (Response response = scheduler.execute(client, createRequest(), GithubRequestScheduler.CORE)) {
+            // Then
+            assertThat(response.code()).isEqualTo(500);
+        }
+        assertThat(scheduler.getStatistics().requests()).isEqualTo(2);
+    }
+
+    @Test
+    void waitForRetryAfter() {
+        // Given
+        var scheduler = new GithubRequestScheduler(null, 1, 4, Duration.ofSeconds(10), Duration.ofMillis(1));
+        replies.add(new Reply(429, Map.of("Retry-After", "1")));
+
+        // When
+        try (Response response = scheduler.execute(client, createRequest(), GithubRequestScheduler.CORE)) {
+            // Then
+            assertThat(response.code()).isEqualTo(200);
+        }
+        assertThat(scheduler.getStatistics().throttledWait()).isGreaterThan(Duration.ofMillis(500));
+    }
+
+    @Test
+    void failWhenRateLimitResetsAfterMaxWait() {
+        // Given
+        var scheduler = new GithubRequestScheduler(null, 1, 4, Duration.ofSeconds(10), Duration.ofMillis(1));
+        long resetSeconds = System.currentTimeMillis() / 1000 + 3600;
+        replies.add(new Reply(200, Map.of("X-RateLimit-Remaining", "0", "X-RateLimit-Reset", String.valueOf(resetSeconds))));
+        scheduler.execute(client, createRequest(), GithubRequestScheduler.CORE).close();
+
+        // When/Then
+        assertThatThrownBy(() -> scheduler.execute(client, createRequest(), GithubRequestScheduler.CORE))
+                .hasMessageContaining("Github rate limit exceeded")
+                .hasMessageContaining("GITHUB_TOKEN");
+        assertThat(scheduler.getRemaining(GithubRequestScheduler.CORE)).contains(0L);
+        assertThat(authorizations).hasSize(1);
+    }
+
+    @Test
+    void authenticateWithToken() {
+        // Given
+        var scheduler = new GithubRequestScheduler("TOKEN", 1, 0, Duration.ZERO);
+
+        // When
+        scheduler.execute(client, createRequest(), GithubRequestScheduler.CORE).close();
+
+        // Then
+        assertThat(authorizations).containsExactly("Bearer TOKEN");
+    }
+
+    @Test
+    void rateLimitWaitDoesNotBlockOtherResources() throws Exception {
+        // Given
+        var scheduler = new GithubRequestScheduler(null, 1, 4, Duration.ofSeconds(10), Duration.ofMillis(1));
+        long resetSeconds = System.currentTimeMillis() / 1000 + 2;
+        replies.add(new Reply(200, Map.of("X-RateLimit-Remaining", "0", "X-RateLimit-Reset", String.valueOf(resetSeconds))));
+        scheduler.execute(client, createRequest(), GithubRequestScheduler.CORE).close();
+        var waiting = Thread.ofVirtual().start(() -> scheduler.execute(client, createRequest(), GithubRequestScheduler.CORE).close());
+        Thread.sleep(200);
+
+        // When
+        long start = System.nanoTime();
+        scheduler.execute(client, createRequest(), GithubRequestScheduler.GRAPHQL).close();
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+        waiting.join();
+
+        // Then
+        assertThat(elapsed).isLessThan(Duration.ofMillis(900));
+        assertThat(scheduler.getStatistics().requests()).isEqualTo(3);
+    }
+
+    @Test
+    void shareSchedulerPerToken() {
+        // When/Then
+        assertThat(GithubRequestScheduler.forToken("A")).isSameAs(GithubRequestScheduler.forToken("A"));
+        assertThat(GithubRequestScheduler.forToken("A")).isNotSameAs(GithubRequestScheduler.forToken("B"));
+        assertThat(GithubRequestScheduler.forToken(null)).isSameAs(GithubRequestScheduler.forToken(null));
+    }
+
+    private Request createRequest() {
+        return new Request.Builder()
+                .url("http://localhost:" + server.getAddress().getPort() + "/repos/owner/repo/commits")
+                .build();
+    }
+}
@@ -0,0 +1,64 @@
+package se.mwthinker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalGitCommitShaResolverTest {
+
+    private static final String COMMIT_SHA = "0123456789abcdef0123456789abcdef01234567";
+
+    @TempDir
+    private Path repositoryDir;
+
+    @Test
+    void resolveBranchRef() throws IOException {
+        // Given
+        Path gitDir = Files.createDirectories(repositoryDir.resolve(".git"));
+        Files.writeString(gitDir.resolve("HEAD"), "ref: refs/heads/master\n");
+        Files.createDirectories(gitDir.resolve("refs/heads"));
+        Files.writeString(gitDir.resolve("refs/heads/master"), COMMIT_SHA + "\n");
+
+        // When/Then
+        assertThat(new LocalGitCommitShaResolver(repositoryDir).resolveLatestCommitSha("microsoft", "vcpkg"))
+                .contains(COMMIT_SHA);
+    }
+
+    @Test
+    void resolvePackedRefInBareRepository() throws IOException {
+        // Given
+        Files.writeString(repositoryDir.resolve("HEAD"), "ref: refs/heads/master\n");
+        Files.writeString(repositoryDir.resolve("packed-refs"), """
+                # pack-refs with: peeled fully-peeled sorted
+                1111111111111111111111111111111111111111 refs/heads/feature
+                %s refs/heads/master
+                """.formatted(COMMIT_SHA));
+
+        // When/Then
+        assertThat(new LocalGitCommitShaResolver(repositoryDir).resolveLatestCommitSha("microsoft", "vcpkg"))
+                .contains(COMMIT_SHA);
+    }
+
+    @Test
+    void resolveDetachedHead() throws IOException {
+        // Given
+        Path gitDir = Files.createDirectories(repositoryDir.resolve(".git"));
+        Files.writeString(gitDir.resolve("HEAD"), COMMIT_SHA + "\n");
+
+        // When/Then
+        assertThat(new LocalGitCommitShaResolver(repositoryDir).resolveLatestCommitSha("microsoft", "vcpkg"))
+                .contains(COMMIT_SHA);
+    }
+
+    @Test
+    void missingRepositoryIsNotResolved() {
+        assertThat(new LocalGitCommitShaResolver(repositoryDir.resolve("missing")).resolveLatestCommitSha("microsoft", "vcpkg"))
+                .isEmpty();
+    }
+
+}
@@ -0,0 +1,95 @@
+package se.mwthinker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs by "mvn -Pnative verify", compares the native executable with the jar.
+@EnabledIfSystemProperty(named = "native.executable", matches = ".+")
+class NativeImageSmokeIT {
+
+    // Pinned baseline, no network access is needed to generate a project without gui.
+    private static final String[] GENERATE_ARGS = {
+            "SmokeProject", "--test", "--no-cache", "--resolver", "microsoft/vcpkg=sha:0000000000000000000000000000000000000000"
+    };
+
+    @TempDir
+    private Path workDir;
+
+    @Test
+    void helpIsSameAsJvm() throws Exception {
+        assertThat(runNative(workDir, "--help")).isEqualTo(runJvm(workDir, "--help"));
+    }
+
+    @Test
+    void versionIsSameAsJvm() throws Exception {
+        assertThat(runNative(workDir, "--version")).isEqualTo(runJvm(workDir, "--version"));
+    }
+
+    @Test
+    void generatedProjectIsSameAsJvm() throws Exception {
+        // Given
+        Path nativeDir = Files.createDirectory(workDir.resolve("native"));
+        Path jvmDir = Files.createDirectory(workDir.resolve("jvm"));
+
+        // When
+        String nativeOutput = runNative(nativeDir, GENERATE_ARGS);
+        String jvmOutput = runJvm(jvmDir, GENERATE_ARGS);
+
+        // Then
+        assertThat(nativeOutput).isEqualTo(jvmOutput);
+        assertThat(readFiles(nativeDir.resolve("SmokeProject")))
+                .isNotEmpty()
+                .isEqualTo(readFiles(jvmDir.resolve("SmokeProject")));
+    }
+
+    private static String runNative(Path dir, String... args) throws Exception {
+        String executable = System.getProperty("native.executable");
+        if (System.getProperty("os.name").startsWith("Windows")) {
+            executable += ".exe";
+        }
+        var command = new ArrayList<>(List.of(executable));
+        command.addAll(List.of(args));
+        return run(dir, command);
+    }
+
+    private static String runJvm(Path dir, String... args) throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        var command = new ArrayList<>(List.of(java, "--enable-native-access=ALL-UNNAMED", "-jar", System.getProperty("jvm.jar")));
+        command.addAll(List.of(args));
+        return run(dir, command);
+    }
+
+    private static String run(Path dir, List<String> command) throws Exception {
+        var process = new ProcessBuilder(command)
+                .directory(dir.toFile())
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertThat(process.waitFor(60, TimeUnit.SECONDS)).isTrue();
+        return output;
+    }
+
+    private static Map<String, String> readFiles(Path dir) throws IOException {
+        Map<String, String> files = new TreeMap<>();
+        try (var paths = Files.walk(dir)) {
+            for (Path path : paths.filter(Files::isRegularFile).toList()) {
+                files.put(dir.relativize(path).toString(), Files.readString(path));
+            }
+        }
+        return files;
+    }
+
+}
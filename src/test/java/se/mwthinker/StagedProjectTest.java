@@ -0,0 +1,111 @@
+package se.mwthinker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class StagedProjectTest {
+
+    @TempDir
+    private Path parentDir;
+
+    @Test
+    void publishMovesStagingDirToProjectDir() throws IOException {
+        // Given
+        File projectDir = parentDir.resolve("MyProject").toFile();
+        var stagedProject = StagedProject.create(projectDir);
+        writeFile(stagedProject, "src/main.cpp");
+
+        // When
+        stagedProject.publish();
+
+        // Then
+        assertThat(projectDir.toPath().resolve("src/main.cpp")).exists();
+        assertThat(stagedProject.getStagingDir()).doesNotExist();
+    }
+
+    @Test
+    void publishedProjectDirHasPermissionsOfPlainDirectory() throws IOException {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+
+        // Given
+        Path plainDir = Files.createDirectory(parentDir.resolve("PlainDir"));
+        File projectDir = parentDir.resolve("MyProject").toFile();
+        var stagedProject = StagedProject.create(projectDir);
+
+        // When
+        stagedProject.publish();
+
+        // Then
+        assertThat(Files.getPosixFilePermissions(projectDir.toPath())).isEqualTo(Files.getPosixFilePermissions(plainDir));
+    }
+
+    @Test
+    void projectIsNotVisibleBeforePublish() throws IOException {
+        // Given
+        File projectDir = parentDir.resolve("MyProject").toFile();
+        var stagedProject = StagedProject.create(projectDir);
+
+        // When
+        writeFile(stagedProject, "CMakeLists.txt");
+
+        // Then
+        assertThat(projectDir).doesNotExist();
+    }
+
+    @Test
+    void rollbackRemovesOnlyRecordedFiles() throws IOException {
+        // Given
+        var stagedProject = StagedProject.create(parentDir.resolve("MyProject").toFile());
+        writeFile(stagedProject, "src/main.cpp");
+        Path unrecordedFile = stagedProject.getStagingDir().toPath().resolve("src/other.cpp");
+        Files.writeString(unrecordedFile, "");
+
+        // When
+        stagedProject.rollback();
+
+        // Then
+        assertThat(stagedProject.getStagingDir().toPath().resolve("src/main.cpp")).doesNotExist();
+        assertThat(unrecordedFile).exists();
+    }
+
+    @Test
+    void rollbackRemovesStagingDir() throws IOException {
+        // Given
+        var stagedProject = StagedProject.create(parentDir.resolve("MyProject").toFile());
+        writeFile(stagedProject, "src/main.cpp");
+
+        // When
+        stagedProject.rollback();
+
+        // Then
+        assertThat(parentDir).isEmptyDirectory();
+    }
+
+    @Test
+    void projectDirMustNotExist() throws IOException {
+        // Given
+        File projectDir = Files.createDirectory(parentDir.resolve("MyProject")).toFile();
+
+        // When/Then
+        assertThatThrownBy(() -> StagedProject.create(projectDir))
+                .isInstanceOf(RuntimeException.class);
+    }
+
+    private static void writeFile(StagedProject stagedProject, String path) throws IOException {
+        Path file = stagedProject.getStagingDir().toPath().resolve(path);
+        stagedProject.getJournal().createDirectories(file.getParent());
+        stagedProject.getJournal().recordFile(file);
+        Files.writeString(file, "");
+    }
+
+}
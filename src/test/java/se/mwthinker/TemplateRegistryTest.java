@@ -0,0 +1,33 @@
+package se.mwthinker;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TemplateRegistryTest {
+
+    @Test
+    void parseAllBundledTemplates() {
+        assertThatCode(TemplateRegistry::warmUp).doesNotThrowAnyException();
+    }
+
+    @Test
+    void templateIsSharedBetweenResourceHandlers() {
+        // Given
+        var guiResourceHandler = new ResourceHandler("gui-template");
+        var emptyResourceHandler = new ResourceHandler("empty-template");
+
+        // When/Then
+        assertThat(guiResourceHandler.getTemplate("CMakeLists.ftl"))
+                .isSameAs(emptyResourceHandler.getTemplate("CMakeLists.ftl"));
+    }
+
+    @Test
+    void missingTemplate() {
+        assertThatThrownBy(() -> TemplateRegistry.getTemplate("Missing.ftl"))
+                .isInstanceOf(RuntimeException.class);
+    }
+
+}
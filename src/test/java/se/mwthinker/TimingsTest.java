@@ -0,0 +1,72 @@
+package se.mwthinker;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingsTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        Timings.stop();
+    }
+
+    @Test
+    void spansAreWrittenAsChromeTraceEvents() throws IOException, InterruptedException {
+        // Given
+        var timings = Timings.start(System.nanoTime());
+        try (var span = Timings.span("github", "GET microsoft/vcpkg/commits")) {
+            span.arg("status", 200);
+        }
+        Thread thread = Thread.ofVirtual().start(() -> {
+            try (var _ = Timings.span("disk", "CMakeLists.txt")) {
+                // Recorded by a thread started by the traced thread.
+            }
+        });
+        thread.join();
+
+        // When
+        var file = tempDir.resolve("trace.json").toFile();
+        timings.writeTrace(file);
+
+        // Then
+        JsonNode events = new ObjectMapper().readTree(file).get("traceEvents");
+        assertThat(events).anySatisfy(event -> {
+            assertThat(event.get("ph").asText()).isEqualTo("X");
+            assertThat(event.get("cat").asText()).isEqualTo("github");
+            assertThat(event.get("args").get("status").asInt()).isEqualTo(200);
+        });
+        assertThat(events).anySatisfy(event -> assertThat(event.get("cat").asText()).isEqualTo("disk"));
+        assertThat(events).anySatisfy(event -> assertThat(event.get("name").asText()).isEqualTo("thread_name"));
+    }
+
+    @Test
+    void spansAreNotRecordedWithoutTimings() {
+        // Given
+        var timings = Timings.start(System.nanoTime());
+        Timings.stop();
+
+        // When
+        try (var _ = Timings.span("template", "CMakeLists.txt")) {
+            // Not recorded.
+        }
+
+        // Then
+        var out = new ByteArrayOutputStream();
+        timings.printSummary(new PrintStream(out, true, StandardCharsets.UTF_8));
+        assertThat(out.toString(StandardCharsets.UTF_8)).doesNotContain("template");
+    }
+}
@@ -0,0 +1,50 @@
+package se.mwthinker;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UnifiedDiffTest {
+
+    @Test
+    void equalTextsHaveNoDiff() {
+        assertThat(UnifiedDiff.diff("a/file", "b/file", "a\nb\n", "a\nb\n")).isEmpty();
+    }
+
+    @Test
+    void diffNewFile() {
+        assertThat(UnifiedDiff.diff("/dev/null", "b/file", "", "a\nb\n")).isEqualTo("""
+                --- /dev/null
+                +++ b/file
+                @@ -0,0 +1,2 @@
+                +a
+                +b
+                """);
+    }
+
+    @Test
+    void diffChangesInSeparateHunks() {
+        // Given
+        String from = "a\nb\nc\nd\ne\nf\ng\nh\ni\nj\nk\nl\nm\n";
+        String to = "a\nB\nc\nd\ne\nf\ng\nh\ni\nj\nk\nl\nm\nn\n";
+
+        // When/Then
+        assertThat(UnifiedDiff.diff("a/file", "b/file", from, to)).isEqualTo("""
+                --- a/file
+                +++ b/file
+                @@ -1,5 +1,5 @@
+                 a
+                -b
+                +B
+                 c
+                 d
+                 e
+                @@ -11,3 +11,4 @@
+                 k
+                 l
+                 m
+                +n
+                """);
+    }
+
+}
@@ -0,0 +1,155 @@
+package se.mwthinker;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class UpdatingFileTreeTest {
+
+    @TempDir
+    private Path projectDir;
+
+    @Test
+    void unchangedFileIsNotWritten() throws IOException {
+        // Given
+        Path file = writeFile("CMakeLists.txt", "project(A)");
+        var lastModified = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(file, lastModified);
+        var fileTree = new UpdatingFileTree(projectDir.toFile(), manifestOf("CMakeLists.txt", "project(A)"), false);
+
+        // When
+        fileTree.write("CMakeLists.txt", bytes("project(A)"));
+
+        // Then
+        assertThat(fileTree.getStatuses()).containsEntry("CMakeLists.txt", UpdatingFileTree.Status.UNCHANGED);
+        assertThat(Files.getLastModifiedTime(file)).isEqualTo(lastModified);
+    }
+
+    @Test
+    void generatedFileIsUpdated() throws IOException {
+        // Given
+        Path file = writeFile("CMakeLists.txt", "project(A)");
+        var fileTree = new UpdatingFileTree(projectDir.toFile(), manifestOf("CMakeLists.txt", "project(A)"), false);
+
+        // When
+        fileTree.write("CMakeLists.txt", bytes("project(B)"));
+
+        // Then
+        assertThat(fileTree.getStatuses()).containsEntry("CMakeLists.txt", UpdatingFileTree.Status.UPDATED);
+        assertThat(file).hasContent("project(B)");
+        assertThat(fileTree.getManifest().getHash("CMakeLists.txt")).isEqualTo(GeneratedFilesManifest.hash(bytes("project(B)")));
+    }
+
+    @Test
+    void updatedFileKeepsPermissions() throws IOException {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+
+        // Given
+        Path file = writeFile("run.sh", "echo A");
+        var permissions = PosixFilePermissions.fromString("rwxr-x---");
+        Files.setPosixFilePermissions(file, permissions);
+        var fileTree = new UpdatingFileTree(projectDir.toFile(), manifestOf("run.sh", "echo A"), false);
+
+        // When
+        fileTree.write("run.sh", bytes("echo B"));
+
+        // Then
+        assertThat(file).hasContent("echo B");
+        assertThat(Files.getPosixFilePermissions(file)).isEqualTo(permissions);
+    }
+
+    @Test
+    void fileModifiedByUserIsKept() throws IOException {
+        // Given
+        Path file = writeFile("src/main.cpp", "int main() { return 1; }");
+        var fileTree = new UpdatingFileTree(projectDir.toFile(), manifestOf("src/main.cpp", "int main() {}"), false);
+
+        // When
+        fileTree.write("src/main.cpp", bytes("int main() { return 0; }"));
+
+        // Then
+        assertThat(fileTree.getStatuses()).containsEntry("src/main.cpp", UpdatingFileTree.Status.KEPT);
+        assertThat(file).hasContent("int main() { return 1; }");
+        assertThat(fileTree.getManifest().getHash("src/main.cpp")).isEqualTo(GeneratedFilesManifest.hash(bytes("int main() {}")));
+    }
+
+    @Test
+    void fileModifiedByUserIsOverwrittenWhenForced() throws IOException {
+        // Given
+        Path file = writeFile("src/main.cpp", "int main() { return 1; }");
+        var fileTree = new UpdatingFileTree(projectDir.toFile(), new GeneratedFilesManifest(), true);
+
+        // When
+        fileTree.write("src/main.cpp", bytes("int main() {}"));
+
+        // Then
+        assertThat(fileTree.getStatuses()).containsEntry("src/main.cpp", UpdatingFileTree.Status.UPDATED);
+        assertThat(file).hasContent("int main() {}");
+    }
+
+    @Test
+    void missingFileIsCreated() {
+        // Given
+        var fileTree = new UpdatingFileTree(projectDir.toFile(), new GeneratedFilesManifest(), false);
+
+        // When
+        fileTree.write(".github/workflows/ci.yml", bytes("name: CI"));
+
+        // Then
+        assertThat(fileTree.getStatuses()).containsEntry(".github/workflows/ci.yml", UpdatingFileTree.Status.CREATED);
+        assertThat(projectDir.resolve(".github/workflows/ci.yml")).hasContent("name: CI");
+    }
+
+    @Test
+    void fileIsUpdatedByConsecutiveUpdates() throws IOException {
+        // Given
+        update("project(A)");
+        update("project(B)");
+
+        // When
+        var fileTree = update("project(C)");
+
+        // Then
+        assertThat(fileTree.getStatuses())
+                .containsEntry("CMakeLists.txt", UpdatingFileTree.Status.UPDATED)
+                .containsEntry(GeneratedFilesManifest.PATH, UpdatingFileTree.Status.UPDATED);
+        assertThat(projectDir.resolve("CMakeLists.txt")).hasContent("project(C)");
+        assertThat(GeneratedFilesManifest.read(projectDir.toFile()).getHash("CMakeLists.txt"))
+                .isEqualTo(GeneratedFilesManifest.hash(bytes("project(C)")));
+    }
+
+    // Writes the file and then the manifest, as ProjectGenerator.update.
+    private UpdatingFileTree update(String content) throws IOException {
+        var fileTree = new UpdatingFileTree(projectDir.toFile(), GeneratedFilesManifest.read(projectDir.toFile()), false);
+        fileTree.write("CMakeLists.txt", bytes(content));
+        fileTree.write(GeneratedFilesManifest.PATH, new ObjectMapper().writeValueAsBytes(fileTree.getManifest()));
+        return fileTree;
+    }
+
+    private Path writeFile(String path, String content) throws IOException {
+        Path file = projectDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+
+    private static GeneratedFilesManifest manifestOf(String path, String content) {
+        var manifest = new GeneratedFilesManifest();
+        manifest.put(path, GeneratedFilesManifest.hash(bytes(content)));
+        return manifest;
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}